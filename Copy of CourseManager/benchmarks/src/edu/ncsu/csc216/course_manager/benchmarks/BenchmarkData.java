@@ -0,0 +1,125 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.io.BinaryRecordStore;
+import edu.ncsu.csc216.course_manager.io.CompressedRecordStore;
+import edu.ncsu.csc216.course_manager.io.CourseRecordIO;
+import edu.ncsu.csc216.course_manager.io.MappedRecordStore;
+import edu.ncsu.csc216.course_manager.io.RecordGenerator;
+import edu.ncsu.csc216.course_manager.io.RecordStore;
+import edu.ncsu.csc216.course_manager.io.StudentRecordIO;
+import edu.ncsu.csc216.course_manager.io.TextRecordStore;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Writes course and student record files for the benchmarks with a
+ * RecordGenerator. Course i is named {@link #courseName(int)} and student i
+ * has the id {@link #studentId(int)} and the password {@link #PASSWORD}.
+ * @author Andrew Northrup
+ */
+public final class BenchmarkData {
+	/** Password of every generated student */
+	public static final String PASSWORD = "pw";
+	/** Most courses each generated student is enrolled in */
+	private static final int COURSES_PER_STUDENT = 4;
+	/** Seed so every run uses the same data */
+	private static final long SEED = 216L;
+
+	/** Course records file */
+	public final File courseFile;
+	/** Student records file */
+	public final File studentFile;
+
+	/**
+	 * Writes a course file with the given number of courses and a student file
+	 * with the given number of students to a new temporary directory. Every
+	 * student can add at least one more credit, so benchmarks can enroll them.
+	 * @param courses number of courses
+	 * @param students number of students
+	 * @throws IOException if the files cannot be written
+	 */
+	public BenchmarkData(int courses, int students) throws IOException {
+		File dir = File.createTempFile("course_manager", "");
+		if (!dir.delete() || !dir.mkdir()) {
+			throw new IOException("Cannot create " + dir);
+		}
+		dir.deleteOnExit();
+		courseFile = new File(dir, "course_records.txt");
+		studentFile = new File(dir, "student_records.txt");
+		courseFile.deleteOnExit();
+		studentFile.deleteOnExit();
+
+		RecordGenerator generator = new RecordGenerator(SEED);
+		generator.setCourseCount(courses);
+		generator.setStudentCount(students);
+		generator.setCoursesPerStudent(0, COURSES_PER_STUDENT);
+		generator.setMinFreeCredits(1);
+		generator.setPassword(PASSWORD);
+		generator.writeCourseRecords(courseFile.getPath());
+		generator.writeStudentRecords(studentFile.getPath());
+	}
+
+	/**
+	 * Returns the name of the given course.
+	 * @param i course number
+	 * @return course name
+	 */
+	public static String courseName(int i) {
+		return RecordGenerator.courseName(i);
+	}
+
+	/**
+	 * Returns the id of the given student.
+	 * @param i student number
+	 * @return student id
+	 */
+	public static String studentId(int i) {
+		return RecordGenerator.studentId(i);
+	}
+
+	/**
+	 * Returns the record store with the given name: "text", "mapped",
+	 * "binary" or "compressed".
+	 * @param name name of the store
+	 * @return new store
+	 */
+	public static RecordStore store(String name) {
+		if ("text".equals(name)) {
+			return new TextRecordStore();
+		} else if ("mapped".equals(name)) {
+			return new MappedRecordStore();
+		} else if ("binary".equals(name)) {
+			return new BinaryRecordStore();
+		} else if ("compressed".equals(name)) {
+			return new CompressedRecordStore();
+		}
+		throw new IllegalArgumentException("Unknown store " + name);
+	}
+
+	/**
+	 * Rewrites the generated text files in the given store's format. Clears
+	 * the CourseManager.
+	 * @param store store to write the files with
+	 * @throws IOException if the files cannot be read or written
+	 */
+	public void writeAs(RecordStore store) throws IOException {
+		CourseManager manager = CourseManager.getInstance();
+		manager.clearData();
+		List<Course> courses = CourseRecordIO.readCourseRecords(courseFile.getPath());
+		for (Course c : courses) {
+			manager.addCourse(c);
+		}
+		List<Student> students = StudentRecordIO.readStudentRecords(studentFile.getPath());
+		store.writeCourses(courseFile.getPath(), courses);
+		store.writeStudents(studentFile.getPath(), students);
+		manager.clearData();
+	}
+}
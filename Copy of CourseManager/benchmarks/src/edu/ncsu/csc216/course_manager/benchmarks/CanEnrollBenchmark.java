@@ -0,0 +1,80 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Measures Course.canEnroll() on a roster of rosterSize students, for a
+ * student who is already enrolled and one who is not.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CanEnrollBenchmark {
+	/** Number of students enrolled in the course */
+	@Param({"10", "500", "5000"})
+	public int rosterSize;
+
+	/** Course under test */
+	private Course course;
+	/** Student in the middle of the roster */
+	private Student enrolled;
+	/** Student who isn't on the roster */
+	private Student notEnrolled;
+
+	/**
+	 * Fills the course roster.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		course = new Course("CSC216", 3, rosterSize + 1);
+		for (int i = 0; i < rosterSize; i++) {
+			Student s = new Student("First" + i, "Last" + i, BenchmarkData.studentId(i), "s" + i + "@ncsu.edu", "pw");
+			course.enroll(s);
+			if (i == rosterSize / 2) {
+				enrolled = s;
+			}
+		}
+		notEnrolled = new Student("First", "Last", "outsider", "outsider@ncsu.edu", "pw");
+	}
+
+	/**
+	 * Checks a student who is already on the roster.
+	 * @return result of canEnroll, always false
+	 */
+	@Benchmark
+	public boolean canEnrollEnrolled() {
+		return course.canEnroll(enrolled);
+	}
+
+	/**
+	 * Checks a student who isn't on the roster.
+	 * @return result of canEnroll, always true
+	 */
+	@Benchmark
+	public boolean canEnrollNotEnrolled() {
+		return course.canEnroll(notEnrolled);
+	}
+}
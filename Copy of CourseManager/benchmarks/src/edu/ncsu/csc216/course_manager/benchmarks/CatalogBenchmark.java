@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures reading the course catalog from several threads at once, as
+ * CourseManager.listAllCourses() and as the published getCatalog() list.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class CatalogBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+
+	/** Manager under test */
+	private CourseManager manager;
+
+	/**
+	 * Loads the generated courses.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		BenchmarkData data = new BenchmarkData(courses, 0);
+		manager = CourseManager.getInstance();
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+	}
+
+	/**
+	 * Copies the catalog into a new array.
+	 * @return every course
+	 */
+	@Benchmark
+	public Course[] listAllCourses() {
+		return manager.listAllCourses();
+	}
+
+	/**
+	 * Reads the published catalog.
+	 * @return every course
+	 */
+	@Benchmark
+	public List<Course> getCatalog() {
+		return manager.getCatalog();
+	}
+}
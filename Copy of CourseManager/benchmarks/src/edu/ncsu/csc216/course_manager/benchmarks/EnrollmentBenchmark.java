@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures CourseManager.addUserToCourse() followed by removeUserFromCourse()
+ * on a course that already has rosterSize students enrolled.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EnrollmentBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+	/** Number of students in the system */
+	@Param({"1000", "100000"})
+	public int students;
+	/** Number of students already enrolled in the benchmarked course */
+	@Param({"10", "500"})
+	public int rosterSize;
+
+	/** Manager under test */
+	private CourseManager manager;
+	/** Course students are added to and removed from */
+	private Course course;
+
+	/**
+	 * Loads the generated data, fills the benchmarked course to rosterSize and
+	 * logs in a student who isn't on its roster.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		if (rosterSize >= students) {
+			throw new IllegalArgumentException("rosterSize must be less than students");
+		}
+		BenchmarkData data = new BenchmarkData(courses, students);
+		manager = CourseManager.getInstance();
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		manager.loadStudents(data.studentFile.getPath());
+
+		course = new Course("BENCH101", 1, rosterSize + 1);
+		manager.addCourse(course);
+		for (int i = 0; i < rosterSize; i++) {
+			manager.login(BenchmarkData.studentId(i), BenchmarkData.PASSWORD);
+			manager.addUserToCourse(course);
+			manager.logout();
+		}
+		if (course.getEnrolledStudents().length != rosterSize
+				|| !manager.login(BenchmarkData.studentId(rosterSize), BenchmarkData.PASSWORD)) {
+			throw new IllegalStateException("Benchmark course was not set up");
+		}
+	}
+
+	/**
+	 * Adds the logged in student to the course and drops them again.
+	 * @return true if both the add and the drop succeeded
+	 */
+	@Benchmark
+	public boolean addAndRemove() {
+		return manager.addUserToCourse(course) & manager.removeUserFromCourse(course);
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures the heap kept alive by loaded students. Each run loads the
+ * courses, collects garbage, loads the students and collects garbage again;
+ * the growth in used heap divided by the number of students is reported as
+ * the bytesPerStudent counter. It covers the students, their course lists,
+ * their places on the course rosters and the manager's index of them.
+ * The fork uses the serial collector, whose System.gc() leaves only live
+ * objects in the heap, and a fixed size heap. Only one iteration is
+ * measured, since JMH adds up the counter over iterations.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+UseSerialGC", "-Xms2g", "-Xmx2g"})
+public class HeapFootprintBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"12000"})
+	public int courses;
+	/** Number of students in the student file */
+	@Param({"100000", "1000000"})
+	public int students;
+	/** Times to run the collector before reading the used heap */
+	private static final int COLLECTIONS = 3;
+
+	/** Generated record files */
+	private BenchmarkData data;
+	/** Manager under test */
+	private CourseManager manager;
+
+	/**
+	 * Heap kept per student by the last load.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+		/** Bytes of heap kept per loaded student */
+		public long bytesPerStudent;
+	}
+
+	/**
+	 * Writes the record files.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		data = new BenchmarkData(courses, students);
+		manager = CourseManager.getInstance();
+	}
+
+	/**
+	 * Loads the students and records the heap they keep.
+	 * @param footprint counter for the heap per student
+	 * @return the manager, so the students aren't collected
+	 */
+	@Benchmark
+	public CourseManager loadStudents(Footprint footprint) {
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		long before = usedHeap();
+		manager.loadStudents(data.studentFile.getPath());
+		long after = usedHeap();
+		footprint.bytesPerStudent = (after - before) / students;
+		return manager;
+	}
+
+	/**
+	 * Collects garbage and returns the heap still in use.
+	 * @return bytes of heap in use
+	 */
+	private static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < COLLECTIONS; i++) {
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures CourseManager.loadStudentsLazily(), alone and followed by the
+ * first login of a small share of the students. Compare with
+ * LoadBenchmark.loadStudents for the text store.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LazyLoadBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+	/** Number of students in the student file */
+	@Param({"1000", "100000"})
+	public int students;
+	/** One student in this many logs in after loading */
+	private static final int ACTIVE_SHARE = 20;
+
+	/** Generated record files */
+	private BenchmarkData data;
+	/** Manager under test */
+	private CourseManager manager;
+
+	/**
+	 * Writes the record files.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		data = new BenchmarkData(courses, students);
+		manager = CourseManager.getInstance();
+	}
+
+	/**
+	 * Loads the course catalog and indexes the students.
+	 * @return the manager, so the work isn't eliminated
+	 */
+	@Benchmark
+	public CourseManager loadStudentsLazily() {
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		manager.loadStudentsLazily(data.studentFile.getPath());
+		return manager;
+	}
+
+	/**
+	 * Loads lazily and then logs in every ACTIVE_SHARE-th student, which
+	 * creates just those students.
+	 * @return number of successful logins
+	 */
+	@Benchmark
+	public int loadLazilyAndLogin() {
+		loadStudentsLazily();
+		int loggedIn = 0;
+		for (int i = 0; i < students; i += ACTIVE_SHARE) {
+			if (manager.loginSession(BenchmarkData.studentId(i), BenchmarkData.PASSWORD) != null) {
+				loggedIn++;
+			}
+		}
+		return loggedIn;
+	}
+}
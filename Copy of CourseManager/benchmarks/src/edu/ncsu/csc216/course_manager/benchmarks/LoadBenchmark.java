@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.io.RecordStore;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures CourseManager.loadCourses() and loadStudents() for different
+ * catalog sizes, student counts and record stores.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoadBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+	/** Number of students in the student file */
+	@Param({"1000", "100000"})
+	public int students;
+	/** Record store, as named for BenchmarkData.store() */
+	@Param({"text", "mapped", "binary", "compressed"})
+	public String store;
+
+	/** Generated record files */
+	private BenchmarkData data;
+	/** Manager under test */
+	private CourseManager manager;
+
+	/**
+	 * Writes the record files in the format of the store and has the
+	 * manager use the store.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		data = new BenchmarkData(courses, students);
+		RecordStore recordStore = BenchmarkData.store(store);
+		data.writeAs(recordStore);
+		manager = CourseManager.getInstance();
+		manager.setRecordStore(recordStore);
+	}
+
+	/**
+	 * Loads the course catalog into an empty manager.
+	 * @return the manager, so the work isn't eliminated
+	 */
+	@Benchmark
+	public CourseManager loadCourses() {
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		return manager;
+	}
+
+	/**
+	 * Loads the course catalog and then the students, which also links every
+	 * enrollment. Subtract loadCourses for the cost of the student load.
+	 * @return the manager, so the work isn't eliminated
+	 */
+	@Benchmark
+	public CourseManager loadStudents() {
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		manager.loadStudents(data.studentFile.getPath());
+		return manager;
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures a CourseManager.login() and logout() pair for different student
+ * counts. Each call logs in the next student in the file.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoginBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+	/** Number of students in the system */
+	@Param({"1000", "100000"})
+	public int students;
+
+	/** Manager under test */
+	private CourseManager manager;
+	/** Ids of every student */
+	private String[] ids;
+	/** Index of the next student to log in */
+	private int next;
+
+	/**
+	 * Loads the generated courses and students.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		BenchmarkData data = new BenchmarkData(courses, students);
+		manager = CourseManager.getInstance();
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		manager.loadStudents(data.studentFile.getPath());
+		ids = new String[students];
+		for (int i = 0; i < students; i++) {
+			ids[i] = BenchmarkData.studentId(i);
+		}
+		if (!manager.login(ids[0], BenchmarkData.PASSWORD)) {
+			throw new IllegalStateException("Generated student cannot log in");
+		}
+		manager.logout();
+	}
+
+	/**
+	 * Logs the next student in and out.
+	 * @return true if the login succeeded
+	 */
+	@Benchmark
+	public boolean login() {
+		String id = ids[next];
+		next = next + 1 == ids.length ? 0 : next + 1;
+		boolean loggedIn = manager.login(id, BenchmarkData.PASSWORD);
+		manager.logout();
+		return loggedIn;
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.io.BinaryStudentRecordIO;
+import edu.ncsu.csc216.course_manager.io.StudentRecordIO;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Compares reading the same students from the text and the binary record
+ * formats. Both benchmarks load the course catalog first, so the difference
+ * between them is the difference between the formats.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecordFormatBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+	/** Number of students in the student file */
+	@Param({"1000", "100000"})
+	public int students;
+
+	/** Generated record files */
+	private BenchmarkData data;
+	/** Binary copy of the student records */
+	private File binaryFile;
+	/** Manager the students are enrolled through */
+	private CourseManager manager;
+
+	/**
+	 * Writes the record files and a binary copy of the students.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		data = new BenchmarkData(courses, students);
+		binaryFile = new File(data.studentFile.getParentFile(), "student_records.bin");
+		binaryFile.deleteOnExit();
+		manager = CourseManager.getInstance();
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		List<Student> loaded = StudentRecordIO.readStudentRecords(data.studentFile.getPath());
+		BinaryStudentRecordIO.writeStudentRecords(binaryFile.getPath(), loaded);
+	}
+
+	/**
+	 * Reads the students from the text file.
+	 * @return students read
+	 * @throws IOException if the file cannot be read
+	 */
+	@Benchmark
+	public List<Student> readText() throws IOException {
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		return StudentRecordIO.readStudentRecords(data.studentFile.getPath());
+	}
+
+	/**
+	 * Reads the students from the binary file.
+	 * @return students read
+	 * @throws IOException if the file cannot be read
+	 */
+	@Benchmark
+	public List<Student> readBinary() throws IOException {
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		return BinaryStudentRecordIO.readStudentRecords(binaryFile.getPath());
+	}
+}
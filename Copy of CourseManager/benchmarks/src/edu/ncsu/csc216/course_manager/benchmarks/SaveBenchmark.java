@@ -0,0 +1,81 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc216.course_manager.io.RecordStore;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Measures CourseManager.saveCourses() and saveStudents(), which rewrite the
+ * generated record files they were loaded from, for each record store.
+ * @author Andrew Northrup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveBenchmark {
+	/** Number of courses in the catalog */
+	@Param({"100", "12000"})
+	public int courses;
+	/** Number of students in the system */
+	@Param({"1000", "100000"})
+	public int students;
+	/** Record store, as named for BenchmarkData.store() */
+	@Param({"text", "mapped", "binary", "compressed"})
+	public String store;
+
+	/** Manager under test */
+	private CourseManager manager;
+
+	/**
+	 * Loads the generated courses and students through the store.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		BenchmarkData data = new BenchmarkData(courses, students);
+		RecordStore recordStore = BenchmarkData.store(store);
+		data.writeAs(recordStore);
+		manager = CourseManager.getInstance();
+		manager.setRecordStore(recordStore);
+		manager.clearData();
+		manager.loadCourses(data.courseFile.getPath());
+		manager.loadStudents(data.studentFile.getPath());
+	}
+
+	/**
+	 * Writes the course records file.
+	 */
+	@Benchmark
+	public void saveCourses() {
+		manager.saveCourses();
+	}
+
+	/**
+	 * Writes the student records file.
+	 */
+	@Benchmark
+	public void saveStudents() {
+		manager.saveStudents();
+	}
+}
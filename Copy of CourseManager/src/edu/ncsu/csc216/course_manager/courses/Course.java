@@ -3,7 +3,8 @@
  */
 package edu.ncsu.csc216.course_manager.courses;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import edu.ncsu.csc216.course_manager.users.Student;
 import edu.ncsu.csc216.course_manager.users.User;
@@ -12,6 +13,13 @@ import edu.ncsu.csc216.course_manager.users.User;
  *Course class that implements Enrollable. This class creates a course
  *and sets up the name, credits and capacity for the course. This class
  *also handles enrolling users and dropping users from the course.
+ *The roster may be read from any thread; CourseManager keeps checks and
+ *changes that span a course and a student atomic.
+ *
+ *Seats are counted separately from the roster so they can be claimed without
+ *a lock: reserveSeat() claims one with a compare-and-set, and the seat is then
+ *either committed to a user or released. A full course turns requests away
+ *without waiting on the roster.
  * @author Andrew Northrup
  *
  */
@@ -20,14 +28,30 @@ public class Course implements Enrollable {
 	private String name;
 	/**Number of credits in a course */
 	private int credits;
-	/**Course capacity */
-	private int capacity;
+	/**Course capacity in the high 32 bits and seats taken in the low 32 bits,
+	 * so both change together in one compare-and-set */
+	private final AtomicLong seats;
 	/**Min number of credit hours for a course */
 	public static final int MIN_HOURS = 1;
 	/**Max number of credit hours for a course */
 	public static final int MAX_HOURS = 4;
-	/** Students enrolled in the course */
-	private ArrayList<User> enrolledStudents;
+	/** Students enrolled in the course keyed by id, in enrollment order */
+	private LinkedHashMap<String, User> enrolledStudents;
+	/** Adds students holding a seat but not yet on the roster, or null */
+	private volatile RosterLoader rosterLoader;
+
+	/**
+	 * Puts students who already hold a seat in a course on its roster. Used
+	 * when students are loaded on demand, so a roster is only completed once
+	 * it is read.
+	 */
+	public interface RosterLoader {
+		/**
+		 * Adds every student waiting for the course to its roster.
+		 * @param course course whose roster is being read
+		 */
+		void loadRoster(Course course);
+	}
 
 	/**
 	 * Creates a Course with the given name and credit hours.
@@ -37,7 +61,8 @@ public class Course implements Enrollable {
 	 */
 	public Course(String name, int credits, int capacity) {
 		super();
-		enrolledStudents = new ArrayList<User>();
+		enrolledStudents = new LinkedHashMap<String, User>();
+		seats = new AtomicLong();
 		setName(name);
 		setCredits(credits);
 		setCapacity(capacity);
@@ -67,13 +92,18 @@ public class Course implements Enrollable {
 		return credits;
 	}
 	/**
-	 * Sets the number of credits a course has
+	 * Sets the number of credits a course has. The credits can't change while
+	 * any seat is taken or reserved, since each enrolled student keeps a
+	 * total of their credits.
 	 * @param credits the credits to set
 	 */
 	public void setCredits(int credits) {
 		if (credits < MIN_HOURS || credits > MAX_HOURS) {
 			throw new IllegalArgumentException();
 		}
+		if (credits != this.credits && getSeatsTaken() > 0) {
+			throw new IllegalArgumentException();
+		}
 		this.credits = credits;
 	}
 	/**
@@ -81,17 +111,116 @@ public class Course implements Enrollable {
 	 * @return the capacity
 	 */
 	public int getCapacity() {
-		return capacity;
+		return capacity(seats.get());
 	}
 	/**
-	 * Sets capacity of course
+	 * Sets capacity of course. The capacity can't be less than the seats
+	 * already taken or reserved.
 	 * @param capacity the capacity to set
 	 */
 	public void setCapacity(int capacity) {
-		if (capacity < 1 || capacity < enrolledStudents.size()) {
+		if (capacity < 1) {
 			throw new IllegalArgumentException();
 		}
-		this.capacity = capacity;
+		long current;
+		do {
+			current = seats.get();
+			if (capacity < taken(current)) {
+				throw new IllegalArgumentException();
+			}
+		} while (!seats.compareAndSet(current, state(capacity, taken(current))));
+	}
+
+	/**
+	 * Claims a seat if one is free. The seat must later be passed to
+	 * commitSeat() or releaseSeat().
+	 * @return true if a seat was claimed, false if the course is full
+	 */
+	public boolean reserveSeat() {
+		long current;
+		do {
+			current = seats.get();
+			if (taken(current) >= capacity(current)) {
+				return false;
+			}
+		} while (!seats.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * Gives a reserved seat to a user by adding them to the roster. If the
+	 * user can't be added the seat is released.
+	 * @param user user to get the reserved seat
+	 * @return true if the user was added to the roster
+	 */
+	public boolean commitSeat(User user) {
+		if (user instanceof Student) {
+			synchronized (this) {
+				if (!enrolledStudents.containsKey(user.getId())) {
+					enrolledStudents.put(user.getId(), user);
+					return true;
+				}
+			}
+		}
+		releaseSeat();
+		return false;
+	}
+
+	/**
+	 * Sets the loader called before the roster is read, or null for none.
+	 * @param loader loader for students waiting for the course
+	 */
+	public void setRosterLoader(RosterLoader loader) {
+		rosterLoader = loader;
+	}
+
+	/**
+	 * Gives back a reserved seat that won't be committed.
+	 */
+	public void releaseSeat() {
+		long current;
+		do {
+			current = seats.get();
+			if (taken(current) == 0) {
+				throw new IllegalArgumentException("No seat is reserved");
+			}
+		} while (!seats.compareAndSet(current, current - 1));
+	}
+
+	/**
+	 * Returns the number of seats taken or reserved.
+	 * @return seats in use
+	 */
+	public int getSeatsTaken() {
+		return taken(seats.get());
+	}
+
+	/**
+	 * Packs a capacity and a seat count into one value.
+	 * @param capacity course capacity
+	 * @param taken seats taken
+	 * @return packed value
+	 */
+	private static long state(int capacity, int taken) {
+		return ((long) capacity << 32) | taken;
+	}
+
+	/**
+	 * Unpacks the capacity.
+	 * @param state packed value
+	 * @return course capacity
+	 */
+	private static int capacity(long state) {
+		return (int) (state >>> 32);
+	}
+
+	/**
+	 * Unpacks the seats taken.
+	 * @param state packed value
+	 * @return seats taken
+	 */
+	private static int taken(long state) {
+		return (int) state;
 	}
 
 	/**
@@ -134,36 +263,36 @@ public class Course implements Enrollable {
 	 * To string for course name, credits and capacity
 	 */
 	public String toString() {
-		return name + "," + credits + "," + capacity ;
+		return name + "," + credits + "," + getCapacity();
 	}
 	/**
-	 * Gets an array of students enrolled in course
+	 * Gets an array of students enrolled in course, in the order they enrolled.
+	 * Students waiting for the course are added by the roster loader first.
 	 * @return array of student enrolled in course
 	 */
 	@Override
 	public Student[] getEnrolledStudents() {
-		Student [] s = new Student[enrolledStudents.size()];
-		return enrolledStudents.toArray(s);
+		RosterLoader loader = rosterLoader;
+		if (loader != null) {
+			loader.loadRoster(this);
+		}
+		synchronized (this) {
+			Student [] s = new Student[enrolledStudents.size()];
+			return enrolledStudents.values().toArray(s);
+		}
 	}
 	/**
 	 * Checks to see if a user can be added to course based on course capacity
-	 * and student is not already in course
+	 * and student is not already in course. Students are identified by id.
 	 * @param User to be added to course
 	 * @return true/false
 	 */
 	@Override
 	public boolean canEnroll(User user) {
-		if (enrolledStudents.size() < capacity) {
-			if (user instanceof Student) {
-				Student s = (Student) user;
-				for (int i = 0; i < enrolledStudents.size(); i++) {
-					if (enrolledStudents.get(i).equals(s)) {
-						return false;
-					}
-				}
-				return true;
+		if (getSeatsTaken() < getCapacity() && user instanceof Student) {
+			synchronized (this) {
+				return !enrolledStudents.containsKey(user.getId());
 			}
-			return false;
 		}
 		return false;
 	}
@@ -174,15 +303,28 @@ public class Course implements Enrollable {
 	 */
 	@Override
 	public boolean enroll(User user) {
-		return canEnroll(user) && enrolledStudents.add(user);
+		if (canEnroll(user) && reserveSeat()) {
+			return commitSeat(user);
+		}
+		return false;
 	}
 	/**
-	 * Drops a user from course
+	 * Drops a user from course. The enrolled student with the same id as the
+	 * given user is removed.
 	 * @param User to be dropped from course
 	 * @return list of enrolled students after dropping
 	 */
 	@Override
 	public boolean drop(User user) {
-		return enrolledStudents.remove(user);
+		if (user == null) {
+			return false;
+		}
+		synchronized (this) {
+			if (enrolledStudents.remove(user.getId()) == null) {
+				return false;
+			}
+		}
+		releaseSeat();
+		return true;
 	}
 }
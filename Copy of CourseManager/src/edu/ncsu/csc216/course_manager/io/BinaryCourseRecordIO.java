@@ -0,0 +1,79 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+
+/**
+ * Reads and writes course records in the binary format of BinaryRecordWriter.
+ * After the header the file holds the number of courses as a varint, then
+ * each course as its name, credits and capacity. The courses are the same as
+ * the ones CourseRecordIO reads from and writes to a text file.
+ * @author Andrew Northrup
+ *
+ */
+public class BinaryCourseRecordIO {
+	/**
+	 * Reads Course records from the given binary file.  If the file doesn't
+	 * exist a FileNotFoundException is thrown.  A course with invalid fields
+	 * will be ignored.
+	 * @param fileName name of file to read
+	 * @return Course records
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read or isn't a
+	 * binary course records file
+	 */
+	public static List<Course> readCourseRecords(String fileName) throws FileNotFoundException {
+		BinaryRecordReader in = new BinaryRecordReader(new FileInputStream(fileName));
+		try {
+			try {
+				in.readHeader(BinaryRecordWriter.COURSES);
+				int count = in.readCount(Integer.MAX_VALUE);
+				List<Course> courses = new ArrayList<Course>(Math.min(count, 1 << 16));
+				for (int i = 0; i < count; i++) {
+					String name = in.readString();
+					int credits = in.readVarint();
+					int capacity = in.readVarint();
+					try {
+						courses.add(new Course(name, credits, capacity));
+					} catch (IllegalArgumentException e) {
+						//if the exception is thrown, ignore the Course.
+					}
+				}
+				return courses;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Writes the courses to the given file in the binary format.
+	 * @param fileName file name to record data
+	 * @param courses list of courses
+	 * @throws IOException if cannot write to file
+	 */
+	public static void writeCourseRecords(String fileName, List<Course> courses) throws IOException {
+		BinaryRecordWriter out = new BinaryRecordWriter(new FileOutputStream(fileName));
+		try {
+			out.writeHeader(BinaryRecordWriter.COURSES);
+			out.writeVarint(courses.size());
+			for (Course c : courses) {
+				out.writeString(c.getName());
+				out.writeVarint(c.getCredits());
+				out.writeVarint(c.getCapacity());
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the pieces of a binary record file written by BinaryRecordWriter.
+ * @author Andrew Northrup
+ *
+ */
+final class BinaryRecordReader implements Closeable {
+	/** Size of the byte buffer in front of the underlying stream */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Longest string accepted, so a corrupt length can't exhaust memory */
+	private static final int MAX_STRING_LENGTH = 1 << 20;
+
+	/** Underlying buffered stream */
+	private final BufferedInputStream in;
+	/** Scratch buffer for the bytes of a string */
+	private byte[] bytes = new byte[64];
+
+	/**
+	 * Creates a BinaryRecordReader that reads from the given stream.
+	 * @param in stream to read records from
+	 */
+	BinaryRecordReader(InputStream in) {
+		this.in = new BufferedInputStream(in, BUFFER_SIZE);
+	}
+
+	/**
+	 * Reads the file header and checks that it is for the given kind of
+	 * record and a version this class can read.
+	 * @param kind BinaryRecordWriter.COURSES or BinaryRecordWriter.STUDENTS
+	 * @throws IOException if the header is missing or doesn't match
+	 */
+	void readHeader(byte kind) throws IOException {
+		for (int i = 0; i < BinaryRecordWriter.MAGIC.length; i++) {
+			if (readByte() != BinaryRecordWriter.MAGIC[i]) {
+				throw new IOException("Not a binary record file");
+			}
+		}
+		if (readByte() != kind) {
+			throw new IOException("Wrong kind of binary record file");
+		}
+		int version = readVarint();
+		if (version != BinaryRecordWriter.VERSION) {
+			throw new IOException("Unsupported binary record version " + version);
+		}
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 * @return number read
+	 * @throws IOException if the file ends or the varint is too long
+	 */
+	int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Reads a varint and checks that it can be used as a count or index.
+	 * @param limit largest value accepted
+	 * @return number read
+	 * @throws IOException if the number is negative or over the limit
+	 */
+	int readCount(int limit) throws IOException {
+		int value = readVarint();
+		if (value < 0 || value > limit) {
+			throw new IOException("Malformed binary record file");
+		}
+		return value;
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 string.
+	 * @return string read
+	 * @throws IOException if the file ends or the length is malformed
+	 */
+	String readString() throws IOException {
+		return readString(BinaryRecordWriter.CHARSET);
+	}
+
+	/**
+	 * Reads a length-prefixed string in the given charset.
+	 * @param charset charset the string was written with
+	 * @return string read
+	 * @throws IOException if the file ends or the length is malformed
+	 */
+	String readString(Charset charset) throws IOException {
+		int length = readCount(MAX_STRING_LENGTH);
+		if (length > bytes.length) {
+			bytes = new byte[Math.max(length, bytes.length * 2)];
+		}
+		int read = 0;
+		while (read < length) {
+			int n = in.read(bytes, read, length - read);
+			if (n < 0) {
+				throw new EOFException("Truncated binary record file");
+			}
+			read += n;
+		}
+		return new String(bytes, 0, length, charset);
+	}
+
+	/**
+	 * Reads one byte.
+	 * @return byte read, from 0 to 255
+	 * @throws IOException if the file ends
+	 */
+	private int readByte() throws IOException {
+		int b = in.read();
+		if (b < 0) {
+			throw new EOFException("Truncated binary record file");
+		}
+		return b;
+	}
+
+	/**
+	 * Closes the underlying stream.
+	 * @throws IOException if the stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
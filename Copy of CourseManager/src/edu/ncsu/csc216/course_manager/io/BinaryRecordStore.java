@@ -0,0 +1,62 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.IOException;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Keeps courses and students in the binary files read and written by
+ * BinaryCourseRecordIO and BinaryStudentRecordIO.
+ * @author Andrew Northrup
+ *
+ */
+public class BinaryRecordStore implements RecordStore {
+	/**
+	 * Reads the courses with BinaryCourseRecordIO.readCourseRecords().
+	 * @param fileName name of file containing courses
+	 * @return courses in file order
+	 * @throws IOException if the file doesn't exist or cannot be read
+	 */
+	@Override
+	public List<Course> readCourses(String fileName) throws IOException {
+		return BinaryCourseRecordIO.readCourseRecords(fileName);
+	}
+
+	/**
+	 * Reads the students with BinaryStudentRecordIO.readStudentRecords().
+	 * @param fileName name of file containing students
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist or cannot be read
+	 */
+	@Override
+	public List<Student> readStudents(String fileName) throws IOException {
+		return BinaryStudentRecordIO.readStudentRecords(fileName);
+	}
+
+	/**
+	 * Writes the courses with BinaryCourseRecordIO.writeCourseRecords().
+	 * @param fileName file name to record data
+	 * @param courses list of courses
+	 * @throws IOException if cannot write to file
+	 */
+	@Override
+	public void writeCourses(String fileName, List<Course> courses) throws IOException {
+		BinaryCourseRecordIO.writeCourseRecords(fileName, courses);
+	}
+
+	/**
+	 * Writes the students with BinaryStudentRecordIO.writeStudentRecords().
+	 * @param fileName file name to record data
+	 * @param students list of students
+	 * @throws IOException if cannot write to file
+	 */
+	@Override
+	public void writeStudents(String fileName, List<Student> students) throws IOException {
+		BinaryStudentRecordIO.writeStudentRecords(fileName, students);
+	}
+}
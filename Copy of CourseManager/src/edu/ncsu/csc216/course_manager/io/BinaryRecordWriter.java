@@ -0,0 +1,104 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the pieces of a binary record file: a header, unsigned varints and
+ * length-prefixed UTF-8 strings. BinaryRecordReader reads them back.
+ *
+ * Every file starts with the bytes 'C', 'M', 'B' and a byte naming the kind
+ * of record in the file, followed by the format version as a varint. A
+ * varint holds 7 bits per byte, low bits first, with the high bit set on
+ * every byte but the last, so small numbers take a single byte.
+ * @author Andrew Northrup
+ *
+ */
+final class BinaryRecordWriter implements Closeable {
+	/** Bytes at the start of every binary record file */
+	static final byte[] MAGIC = {'C', 'M', 'B'};
+	/** Kind byte of a course records file */
+	static final byte COURSES = 'C';
+	/** Kind byte of a student records file */
+	static final byte STUDENTS = 'S';
+	/** Format version written by this class */
+	static final int VERSION = 1;
+	/** Charset of every string in the file */
+	static final Charset CHARSET = StandardCharsets.UTF_8;
+	/** Size of the byte buffer in front of the underlying stream */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Underlying buffered stream */
+	private final BufferedOutputStream out;
+
+	/**
+	 * Creates a BinaryRecordWriter that writes to the given stream.
+	 * @param out stream to send records to
+	 */
+	BinaryRecordWriter(OutputStream out) {
+		this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes the file header for the given kind of record.
+	 * @param kind COURSES or STUDENTS
+	 * @throws IOException if the header cannot be written
+	 */
+	void writeHeader(byte kind) throws IOException {
+		out.write(MAGIC);
+		out.write(kind);
+		writeVarint(VERSION);
+	}
+
+	/**
+	 * Writes an int as an unsigned varint. Negative numbers take five bytes.
+	 * @param value number to write
+	 * @throws IOException if the number cannot be written
+	 */
+	void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**
+	 * Writes a string as the varint length of its UTF-8 bytes followed by the
+	 * bytes.
+	 * @param s string to write
+	 * @throws IOException if the string cannot be written
+	 */
+	void writeString(String s) throws IOException {
+		writeString(s, CHARSET);
+	}
+
+	/**
+	 * Writes a string as the varint length of its bytes in the given charset
+	 * followed by the bytes.
+	 * @param s string to write
+	 * @param charset charset to encode the string with
+	 * @throws IOException if the string cannot be written
+	 */
+	void writeString(String s, Charset charset) throws IOException {
+		byte[] bytes = s.getBytes(charset);
+		writeVarint(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Flushes any buffered bytes and closes the underlying stream.
+	 * @throws IOException if the bytes cannot be flushed
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Reads and writes student records in the binary format of
+ * BinaryRecordWriter. After the header the file holds a table of the course
+ * names used by the students: the number of names as a varint, then each
+ * name. Then comes the number of students and each student as first name,
+ * last name, id, email, password, max credits, number of courses and the
+ * index of each course name in the table. A course name is stored once no
+ * matter how many students take the course.
+ *
+ * Strings are UTF-8, except for the hashed password. It is written in the
+ * platform charset, as the text format writes it, so it takes the same space
+ * and reads back the same as from a text file.
+ * @author Andrew Northrup
+ *
+ */
+public class BinaryStudentRecordIO {
+	/**
+	 * Reads Student records from the given binary file and enrolls each
+	 * student in its courses, which must already be in the CourseManager.  If
+	 * the file doesn't exist a FileNotFoundException is thrown.  A student
+	 * with invalid fields, or a course that doesn't exist or can't be added,
+	 * will be ignored, as with StudentRecordIO.readStudentRecords().  If the
+	 * file ends early or is corrupt, the students read so far are dropped
+	 * from their courses.
+	 * @param fileName name of file to read student records out of
+	 * @return Student a student object based on file contents
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read or isn't a
+	 * binary student records file
+	 */
+	public static List<Student> readStudentRecords(String fileName) throws FileNotFoundException {
+		BinaryRecordReader in = new BinaryRecordReader(new FileInputStream(fileName));
+		ArrayList<Student> student = new ArrayList<Student>();
+		try {
+			try {
+				in.readHeader(BinaryRecordWriter.STUDENTS);
+				CourseManager manager = CourseManager.getInstance();
+				Course [] table = new Course[in.readCount(Integer.MAX_VALUE)];
+				for (int i = 0; i < table.length; i++) {
+					//Names are looked up once here rather than once per student
+					table[i] = manager.getCourseByName(in.readString());
+				}
+				int count = in.readCount(Integer.MAX_VALUE);
+				student.ensureCapacity(Math.min(count, 1 << 16));
+				for (int i = 0; i < count; i++) {
+					String firstName = in.readString();
+					String lastName = in.readString();
+					String id = in.readString();
+					String email = in.readString();
+					String password = in.readString(Charset.defaultCharset());
+					int maxCredits = in.readVarint();
+					Course [] courses = new Course[in.readCount(table.length)];
+					for (int j = 0; j < courses.length; j++) {
+						courses[j] = table[in.readCount(table.length - 1)];
+					}
+					try {
+						Student s = new Student(firstName, lastName, id, email, password);
+						s.setMaxCredits(maxCredits);
+						student.add(StudentRecordIO.linkStudent(s, courses));
+					} catch (IllegalArgumentException e) {
+						//if the exception is thrown, ignore the Student.  
+					}
+				}
+				return student;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			//A truncated or corrupt file mustn't leave the students read so
+			//far on any roster
+			StudentRecordIO.unlinkStudents(student);
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Writes the students to the given file in the binary format.
+	 * @param fileName file name to record data
+	 * @param student list of students
+	 * @throws IOException if cannot write to file
+	 */
+	public static void writeStudentRecords(String fileName, List<Student> student) throws IOException {
+		//Take each student's courses once so the table and the records agree
+		List<Course []> courses = new ArrayList<Course []>(student.size());
+		Map<String, Integer> index = new HashMap<String, Integer>();
+		List<String> names = new ArrayList<String>();
+		for (Student s : student) {
+			Course [] taken = s.getCourses();
+			courses.add(taken);
+			for (int i = 0; i < taken.length; i++) {
+				String name = taken[i].getName();
+				if (!index.containsKey(name)) {
+					index.put(name, names.size());
+					names.add(name);
+				}
+			}
+		}
+		
+		Charset charset = Charset.defaultCharset();
+		BinaryRecordWriter out = new BinaryRecordWriter(new FileOutputStream(fileName));
+		try {
+			out.writeHeader(BinaryRecordWriter.STUDENTS);
+			out.writeVarint(names.size());
+			for (String name : names) {
+				out.writeString(name);
+			}
+			out.writeVarint(student.size());
+			for (int i = 0; i < student.size(); i++) {
+				Student s = student.get(i);
+				out.writeString(s.getFirstName());
+				out.writeString(s.getLastName());
+				out.writeString(s.getId());
+				out.writeString(s.getEmail());
+				out.writeString(s.getPassword(), charset);
+				out.writeVarint(s.getMaxCredits());
+				Course [] taken = courses.get(i);
+				out.writeVarint(taken.length);
+				for (int j = 0; j < taken.length; j++) {
+					out.writeVarint(index.get(taken[j].getName()));
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a file written by BlockCompressedOutputStream. The block index at
+ * the end of the file is read first. Blocks ahead of the one being read are
+ * decompressed in parallel on the common ForkJoinPool, each with its own
+ * Inflater, and seek() can jump to any uncompressed position by
+ * decompressing only the blocks from there on.
+ * @author Andrew Northrup
+ *
+ */
+public final class BlockCompressedInputStream extends InputStream {
+	/** Open file */
+	private final RandomAccessFile file;
+	/** File offset of each block */
+	private final long[] offsets;
+	/** Compressed length of each block */
+	private final int[] compressedLengths;
+	/** Uncompressed position of the start of each block, then the total */
+	private final long[] starts;
+	/** Most blocks decompressing at once */
+	private final int maxInFlight;
+	/** Blocks being decompressed, in file order */
+	private final ArrayDeque<Future<byte[]>> inFlight;
+	/** Next block to start decompressing */
+	private int nextBlock;
+	/** Block being read, or null before the first read */
+	private byte[] block;
+	/** Number of the block being read */
+	private int blockNumber;
+	/** Position of the next byte in block */
+	private int blockPos;
+
+	/**
+	 * Opens the given file and reads its block index.
+	 * @param fileName file to read
+	 * @throws java.io.FileNotFoundException if the file doesn't exist
+	 * @throws IOException if the file can't be read or isn't a block
+	 * compressed file
+	 */
+	public BlockCompressedInputStream(String fileName) throws IOException {
+		file = new RandomAccessFile(fileName, "r");
+		try {
+			long size = file.length();
+			byte[] magic = new byte[BlockCompressedOutputStream.MAGIC.length];
+			if (size < magic.length + BlockCompressedOutputStream.FOOTER_SIZE) {
+				throw new IOException("Not a block compressed file");
+			}
+			file.readFully(magic);
+			for (int i = 0; i < magic.length; i++) {
+				if (magic[i] != BlockCompressedOutputStream.MAGIC[i]) {
+					throw new IOException("Not a block compressed file");
+				}
+			}
+			file.seek(size - BlockCompressedOutputStream.FOOTER_SIZE);
+			long indexOffset = file.readLong();
+			int blocks = file.readInt();
+			if (blocks < 0 || indexOffset < magic.length || indexOffset + (long) blocks
+					* BlockCompressedOutputStream.INDEX_ENTRY_SIZE + BlockCompressedOutputStream.FOOTER_SIZE != size) {
+				throw new IOException("Malformed block index");
+			}
+			offsets = new long[blocks];
+			compressedLengths = new int[blocks];
+			starts = new long[blocks + 1];
+			ByteBuffer index = ByteBuffer.allocate(blocks * BlockCompressedOutputStream.INDEX_ENTRY_SIZE);
+			file.getChannel().read(index, indexOffset);
+			index.flip();
+			for (int i = 0; i < blocks; i++) {
+				offsets[i] = index.getLong();
+				compressedLengths[i] = index.getInt();
+				int length = index.getInt();
+				if (offsets[i] < magic.length || compressedLengths[i] < 0 || length < 0
+						|| offsets[i] + compressedLengths[i] > indexOffset) {
+					throw new IOException("Malformed block index");
+				}
+				starts[i + 1] = starts[i] + length;
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		} catch (RuntimeException e) {
+			file.close();
+			throw new IOException("Malformed block index");
+		}
+		maxInFlight = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+		inFlight = new ArrayDeque<Future<byte[]>>();
+	}
+
+	/**
+	 * Returns the number of uncompressed bytes in the file.
+	 * @return uncompressed length
+	 */
+	public long length() {
+		return starts[starts.length - 1];
+	}
+
+	/**
+	 * Returns the number of blocks in the file.
+	 * @return block count
+	 */
+	public int getBlockCount() {
+		return offsets.length;
+	}
+
+	/**
+	 * Moves to the given uncompressed position. Only the block holding the
+	 * position and the ones after it are decompressed.
+	 * @param position uncompressed position of the next byte to read
+	 * @throws IOException if the position is outside the file
+	 */
+	public void seek(long position) throws IOException {
+		if (position < 0 || position > length()) {
+			throw new EOFException("Position " + position + " outside the file");
+		}
+		//Blocks already started are left to finish and thrown away
+		inFlight.clear();
+		//Blocks are never empty, so the starts are strictly increasing
+		int b = Arrays.binarySearch(starts, position);
+		if (b < 0) {
+			b = -b - 2;
+		}
+		nextBlock = b;
+		block = null;
+		blockNumber = b;
+		if (b < offsets.length) {
+			nextBlock();
+			blockPos = (int) (position - starts[b]);
+		}
+	}
+
+	/**
+	 * Reads one byte.
+	 * @return byte read, or -1 at the end of the file
+	 * @throws IOException if a block can't be read
+	 */
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return block[blockPos++] & 0xff;
+	}
+
+	/**
+	 * Reads up to len bytes.
+	 * @param b array to read into
+	 * @param off offset of the first byte
+	 * @param len most bytes to read
+	 * @return number of bytes read, or -1 at the end of the file
+	 * @throws IOException if a block can't be read
+	 */
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int n = Math.min(len, block.length - blockPos);
+		System.arraycopy(block, blockPos, b, off, n);
+		blockPos += n;
+		return n;
+	}
+
+	/**
+	 * Makes sure the current block has a byte left to read.
+	 * @return false at the end of the file
+	 * @throws IOException if a block can't be read
+	 */
+	private boolean fill() throws IOException {
+		while (block == null || blockPos == block.length) {
+			if (block != null) {
+				blockNumber++;
+			}
+			if (blockNumber >= offsets.length) {
+				return false;
+			}
+			nextBlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Makes the next decompressed block current, starting more blocks so
+	 * that several are always being decompressed ahead of the reader.
+	 * @throws IOException if the block can't be read or decompressed
+	 */
+	private void nextBlock() throws IOException {
+		while (inFlight.size() < maxInFlight && nextBlock < offsets.length) {
+			final int b = nextBlock++;
+			inFlight.add(ForkJoinPool.commonPool().submit(new Callable<byte[]>() {
+				@Override
+				public byte[] call() throws IOException {
+					return inflate(b);
+				}
+			}));
+		}
+		try {
+			block = inFlight.remove().get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted decompressing a block");
+		}
+		blockPos = 0;
+	}
+
+	/**
+	 * Reads and decompresses one block. Safe to call from several threads
+	 * at once, since each read is at its own position.
+	 * @param b block number
+	 * @return decompressed block
+	 * @throws IOException if the block can't be read or is corrupt
+	 */
+	private byte[] inflate(int b) throws IOException {
+		FileChannel channel = file.getChannel();
+		ByteBuffer compressed = ByteBuffer.allocate(compressedLengths[b]);
+		long offset = offsets[b];
+		while (compressed.hasRemaining()) {
+			if (channel.read(compressed, offset + compressed.position()) < 0) {
+				throw new EOFException("Truncated block " + b);
+			}
+		}
+		int length = (int) (starts[b + 1] - starts[b]);
+		//One spare byte catches a block longer than the index says
+		byte[] data = new byte[length + 1];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed.array());
+			int size = 0;
+			while (size < data.length && !inflater.finished()) {
+				int n = inflater.inflate(data, size, data.length - size);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				size += n;
+			}
+			if (size != length || !inflater.finished()) {
+				throw new IOException("Corrupt block " + b);
+			}
+			return Arrays.copyOf(data, length);
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt block " + b + ": " + e.getMessage());
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Closes the file. Blocks still being decompressed are thrown away.
+	 * @throws IOException if the file can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		inFlight.clear();
+		file.close();
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a file of independently compressed blocks that
+ * BlockCompressedInputStream reads back. The bytes written are cut into
+ * blocks of a fixed size and each full block is compressed with its own
+ * Deflater on the common ForkJoinPool, so a large file is compressed on
+ * every core. Only a few blocks are in flight at once, and they are written
+ * in order.
+ *
+ * The file starts with the bytes 'C', 'M', 'Z' and a version byte, followed
+ * by the compressed blocks. After the last block comes the block index: for
+ * each block, its file offset as a long and its compressed and uncompressed
+ * lengths as ints. The file ends with the offset of the index
+ * as a long and the number of blocks as an int.
+ * @author Andrew Northrup
+ *
+ */
+public final class BlockCompressedOutputStream extends OutputStream {
+	/** Bytes at the start of every block compressed file */
+	static final byte[] MAGIC = {'C', 'M', 'Z', 1};
+	/** Bytes in each index entry */
+	static final int INDEX_ENTRY_SIZE = 8 + 4 + 4;
+	/** Bytes in the footer after the index */
+	static final int FOOTER_SIZE = 8 + 4;
+	/** Size of the byte buffer in front of the underlying stream */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Default number of uncompressed bytes in a block */
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	/** Underlying file */
+	private final DataOutputStream out;
+	/** Number of uncompressed bytes in a block */
+	private final int blockSize;
+	/** Deflater compression level */
+	private final int level;
+	/** Most blocks compressing at once */
+	private final int maxInFlight;
+	/** Block being filled */
+	private byte[] block;
+	/** Bytes used in block */
+	private int used;
+	/** Blocks being compressed, in file order */
+	private final ArrayDeque<Future<byte[]>> inFlight;
+	/** Uncompressed length of each block in inFlight, in the same order */
+	private final ArrayDeque<Integer> inFlightLengths;
+	/** Index entries of the blocks written so far */
+	private long[] offsets;
+	/** Compressed length of each block written */
+	private int[] compressedLengths;
+	/** Uncompressed length of each block written */
+	private int[] lengths;
+	/** Number of blocks written */
+	private int blocks;
+	/** Bytes written to the file so far */
+	private long position;
+	/** True once close() has been called */
+	private boolean closed;
+
+	/**
+	 * Creates a stream that writes the given file with the default block size
+	 * and the fastest compression level, which on record files compresses
+	 * almost as well as the default level in about half the time.
+	 * @param fileName file to write
+	 * @throws IOException if the file can't be created
+	 */
+	public BlockCompressedOutputStream(String fileName) throws IOException {
+		this(new FileOutputStream(fileName), DEFAULT_BLOCK_SIZE, Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * Creates a stream that writes to the given stream.
+	 * @param out stream to write the file to
+	 * @param blockSize number of uncompressed bytes in each block
+	 * @param level Deflater compression level
+	 * @throws IOException if the header can't be written
+	 */
+	public BlockCompressedOutputStream(OutputStream out, int blockSize, int level) throws IOException {
+		if (blockSize < 1 || level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException();
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		this.blockSize = blockSize;
+		this.level = level;
+		this.maxInFlight = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+		this.block = new byte[blockSize];
+		this.inFlight = new ArrayDeque<Future<byte[]>>();
+		this.inFlightLengths = new ArrayDeque<Integer>();
+		this.offsets = new long[16];
+		this.compressedLengths = new int[16];
+		this.lengths = new int[16];
+		this.out.write(MAGIC);
+		this.position = MAGIC.length;
+	}
+
+	/**
+	 * Writes one byte.
+	 * @param b byte to write
+	 * @throws IOException if a block can't be written
+	 */
+	@Override
+	public void write(int b) throws IOException {
+		if (used == blockSize) {
+			submitBlock();
+		}
+		block[used++] = (byte) b;
+	}
+
+	/**
+	 * Writes a range of bytes.
+	 * @param b bytes to write
+	 * @param off offset of the first byte
+	 * @param len number of bytes
+	 * @throws IOException if a block can't be written
+	 */
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (used == blockSize) {
+				submitBlock();
+			}
+			int n = Math.min(len, blockSize - used);
+			System.arraycopy(b, off, block, used, n);
+			used += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Starts compressing the filled block and writes out finished blocks
+	 * until there is room for another one in flight.
+	 * @throws IOException if a block can't be written
+	 */
+	private void submitBlock() throws IOException {
+		final byte[] data = block;
+		final int length = used;
+		final int compression = level;
+		inFlight.add(ForkJoinPool.commonPool().submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return deflate(data, length, compression);
+			}
+		}));
+		inFlightLengths.add(length);
+		block = new byte[blockSize];
+		used = 0;
+		while (inFlight.size() >= maxInFlight) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * Compresses a block with a new Deflater.
+	 * @param data block to compress
+	 * @param length number of bytes used in the block
+	 * @param level Deflater compression level
+	 * @return compressed bytes
+	 */
+	private static byte[] deflate(byte[] data, int length, int level) {
+		Deflater deflater = new Deflater(level);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] compressed = new byte[Math.max(64, length / 2)];
+			int size = 0;
+			while (!deflater.finished()) {
+				if (size == compressed.length) {
+					compressed = Arrays.copyOf(compressed, size * 2);
+				}
+				size += deflater.deflate(compressed, size, compressed.length - size);
+			}
+			return Arrays.copyOf(compressed, size);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Waits for the oldest block in flight and writes it to the file.
+	 * @throws IOException if the block can't be compressed or written
+	 */
+	private void writeBlock() throws IOException {
+		byte[] compressed;
+		try {
+			compressed = inFlight.remove().get();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted compressing a block");
+		}
+		if (blocks == offsets.length) {
+			offsets = Arrays.copyOf(offsets, blocks * 2);
+			compressedLengths = Arrays.copyOf(compressedLengths, blocks * 2);
+			lengths = Arrays.copyOf(lengths, blocks * 2);
+		}
+		offsets[blocks] = position;
+		compressedLengths[blocks] = compressed.length;
+		lengths[blocks] = inFlightLengths.remove();
+		blocks++;
+		out.write(compressed);
+		position += compressed.length;
+	}
+
+	/**
+	 * Compresses the last block, writes every block, the index and the
+	 * footer, and closes the file.
+	 * @throws IOException if the file can't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (used > 0) {
+				submitBlock();
+			}
+			while (!inFlight.isEmpty()) {
+				writeBlock();
+			}
+			long indexOffset = position;
+			for (int i = 0; i < blocks; i++) {
+				out.writeLong(offsets[i]);
+				out.writeInt(compressedLengths[i]);
+				out.writeInt(lengths[i]);
+			}
+			out.writeLong(indexOffset);
+			out.writeInt(blocks);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Keeps courses and students in block compressed files. The records inside
+ * are the same comma separated lines TextRecordStore writes, in the default
+ * charset, so a compressed file decompresses to a file CourseRecordIO and
+ * StudentRecordIO can read.
+ * @author Andrew Northrup
+ *
+ */
+public class CompressedRecordStore implements RecordStore {
+	/** Size of the character buffer used when reading a file */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Reads the courses from a block compressed file.
+	 * @param fileName name of file containing courses
+	 * @return courses in file order
+	 * @throws IOException if the file doesn't exist or isn't a block
+	 * compressed file
+	 * @throws IllegalArgumentException if a block is corrupt
+	 */
+	@Override
+	public List<Course> readCourses(String fileName) throws IOException {
+		return CourseRecordIO.readCourseRecords(open(fileName, null));
+	}
+
+	/**
+	 * Reads the courses from a block compressed file, telling the listener
+	 * how many of the decompressed bytes have been read.
+	 * @param fileName name of file containing courses
+	 * @param listener listener told how much has been read
+	 * @return courses in file order
+	 * @throws IOException if the file doesn't exist or isn't a block
+	 * compressed file
+	 * @throws IllegalArgumentException if a block is corrupt or the thread
+	 * is interrupted
+	 */
+	@Override
+	public List<Course> readCourses(String fileName, ProgressListener listener) throws IOException {
+		return CourseRecordIO.readCourseRecords(open(fileName, listener));
+	}
+
+	/**
+	 * Reads the students from a block compressed file.
+	 * @param fileName name of file containing students
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist or isn't a block
+	 * compressed file
+	 * @throws IllegalArgumentException if a block is corrupt
+	 */
+	@Override
+	public List<Student> readStudents(String fileName) throws IOException {
+		return StudentRecordIO.readStudentRecords(open(fileName, null));
+	}
+
+	/**
+	 * Reads the students from a block compressed file, telling the listener
+	 * how many of the decompressed bytes have been read.
+	 * @param fileName name of file containing students
+	 * @param listener listener told how much has been read
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist or isn't a block
+	 * compressed file
+	 * @throws IllegalArgumentException if a block is corrupt or the thread
+	 * is interrupted
+	 */
+	@Override
+	public List<Student> readStudents(String fileName, ProgressListener listener) throws IOException {
+		return StudentRecordIO.readStudentRecords(open(fileName, listener));
+	}
+
+	/**
+	 * Writes the courses to a block compressed file.
+	 * @param fileName file name to record data
+	 * @param courses list of courses
+	 * @throws IOException if cannot write to file
+	 */
+	@Override
+	public void writeCourses(String fileName, List<Course> courses) throws IOException {
+		CourseRecordIO.writeCourseRecords(new OutputStreamWriter(new BlockCompressedOutputStream(fileName)), courses);
+	}
+
+	/**
+	 * Writes the students to a block compressed file.
+	 * @param fileName file name to record data
+	 * @param students list of students
+	 * @throws IOException if cannot write to file
+	 */
+	@Override
+	public void writeStudents(String fileName, List<Student> students) throws IOException {
+		StudentRecordIO.writeStudentRecords(new OutputStreamWriter(new BlockCompressedOutputStream(fileName)), students);
+	}
+
+	/**
+	 * Opens a block compressed file for reading as text.
+	 * @param fileName file to read
+	 * @param listener listener told about every read, or null
+	 * @return reader of the decompressed records
+	 * @throws IOException if the file doesn't exist or isn't a block
+	 * compressed file
+	 */
+	private static BufferedReader open(String fileName, ProgressListener listener) throws IOException {
+		BlockCompressedInputStream blocks = new BlockCompressedInputStream(fileName);
+		InputStream in = listener == null ? blocks : new ProgressInputStream(blocks, blocks.length(), listener);
+		return new BufferedReader(new InputStreamReader(in), BUFFER_SIZE);
+	}
+}
@@ -5,15 +5,15 @@ package edu.ncsu.csc216.course_manager.io;
 
 
 
-import java.io.File;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 import edu.ncsu.csc216.course_manager.courses.Course;
 
@@ -25,6 +25,8 @@ import edu.ncsu.csc216.course_manager.courses.Course;
  *
  */
 public class CourseRecordIO {
+	/** Size of the character buffer used when reading a file */
+	private static final int BUFFER_SIZE = 1 << 16;
 	/**
 	 * Reads Course records from the given file.  If the file doesn't exist
 	 * a FileNotFoundException is thrown.  A line with a format error will be
@@ -32,41 +34,55 @@ public class CourseRecordIO {
 	 * @param fileName name of file to read
 	 * @return Course records
 	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read
 	 */
 	public static List<Course> readCourseRecords(String fileName) throws FileNotFoundException {
+		return readCourseRecords(new BufferedReader(new FileReader(fileName), BUFFER_SIZE));
+	}
+	/**
+	 * Reads Course records from the given reader and closes it.  A line with
+	 * a format error will be ignored.
+	 * @param fileReader reader positioned at the first record
+	 * @return Course records
+	 * @throws IllegalArgumentException if the records cannot be read
+	 */
+	static List<Course> readCourseRecords(BufferedReader fileReader) {
 		List<Course> courses = new ArrayList<Course>();
-			
-		Scanner fileScanner = new Scanner(new File(fileName));
-		while (fileScanner.hasNextLine()) {
+		
+		RecordTokenizer.Line tokenizer = new RecordTokenizer.Line();
+		try {
 			try {
-				courses.add(processCourse(fileScanner.nextLine()));
-			} catch (IllegalArgumentException e) {
-				//if the exception is thrown, ignore the Student line.  
+				String line;
+				while ((line = fileReader.readLine()) != null) {
+					try {
+						courses.add(processCourse(tokenizer.reset(line)));
+					} catch (IllegalArgumentException e) {
+						//if the exception is thrown, ignore the Course line.  
+					}
+				}
+			} finally {
+				fileReader.close();
 			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
 		}
-		
-		fileScanner.close();
 		return courses;
 	}
 	/**
-	 * Reads a line sent from the file scanner read from the Courses file. The
-	 * line scanner reads in the string and uses commas as the delimiter to
-	 * set up the string to be read by the Course constructor.
-	 * @param courseline for the line read in by the scanner
+	 * Reads the fields of a line from the Courses file. The tokenizer splits the
+	 * line on commas to set up the values read by the Course constructor. Any
+	 * fields after the capacity are ignored.
+	 * @param courseLine tokenizer positioned at the start of the line
 	 * @return Course new Course is created
-	 * @throws FileNotFoundException if the the elements read in from the line don't match the constructor for Course
+	 * @throws IllegalArgumentException if the the elements read in from the line don't match the constructor for Course
 	 */
-	private static Course processCourse(String courseLine) {
-		Scanner lineScanner = new Scanner(courseLine);
+	private static Course processCourse(RecordTokenizer courseLine) {
 		try {
-			lineScanner.useDelimiter(",");
-			String name = lineScanner.next();
-			int credits = lineScanner.nextInt();
-			int capacity = lineScanner.nextInt();
-			lineScanner.close();
+			String name = courseLine.next();
+			int credits = courseLine.nextInt();
+			int capacity = courseLine.nextInt();
 			return new Course(name, credits, capacity);
 		} catch (NoSuchElementException e) {
-			lineScanner.close();
 			throw new IllegalArgumentException();
 		}
 	}
@@ -77,12 +93,23 @@ public class CourseRecordIO {
 	 * @throws IOException if cannot write to file
 	 */
 	public static void writeCourseRecords(String fileName, List<Course> courses) throws IOException {
-		PrintWriter fileOut = new PrintWriter(new FileWriter(fileName));
-		
-		for (Course c: courses) {
-			fileOut.println(c.toString());
+		writeCourseRecords(new FileWriter(fileName), courses);
+	}
+	/**
+	 * Writes the information about the courses to the given writer and
+	 * closes it.
+	 * @param out writer to record data to
+	 * @param courses list of courses
+	 * @throws IOException if cannot write to the writer
+	 */
+	static void writeCourseRecords(Writer out, List<Course> courses) throws IOException {
+		RecordWriter fileOut = new RecordWriter(out);
+		try {
+			for (Course c: courses) {
+				fileOut.writeCourse(c);
+			}
+		} finally {
+			fileOut.close();
 		}
-		
-		fileOut.close();
 	}
 }
\ No newline at end of file
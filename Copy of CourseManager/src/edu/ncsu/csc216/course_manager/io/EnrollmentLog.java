@@ -0,0 +1,394 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.NoSuchElementException;
+
+/**
+ * Append-only log of enrollment changes. Each add or drop is one line of the
+ * form "A,id,course" or "D,id,course", written in the same charset as the
+ * record files.
+ *
+ * Appending only buffers the line; sync() makes it durable. Threads that sync
+ * at the same time share one write and one FileChannel.force(): the first
+ * thread writes every buffered line while the others wait for it, so many
+ * concurrent changes cost a single disk flush. If a write fails, the log
+ * fails for good: the failed entries are never written, and every later
+ * sync() or truncate() throws, so nothing is reported as durable after an
+ * entry that was lost.
+ *
+ * Positions in the log are logical: they count every byte ever appended and
+ * keep growing when old entries are discarded by truncate(). A checkpoint
+ * copies the records and records position() while no entry can be
+ * appended, saves the copies, then discards everything before the recorded
+ * position. The entries left are exactly the changes the saved files miss.
+ * @author Andrew Northrup
+ *
+ */
+public final class EnrollmentLog implements Closeable {
+	/** Operation for a student added to a course */
+	public static final char ADD = 'A';
+	/** Operation for a student dropped from a course */
+	public static final char DROP = 'D';
+	/** Line terminator after each entry */
+	private static final byte NEWLINE = '\n';
+
+	/** Log file */
+	private final File file;
+	/** Charset used to encode entries */
+	private final Charset charset;
+	/** Open log file */
+	private RandomAccessFile out;
+	/** Entries appended but not yet written */
+	private final ByteArrayOutputStream pending;
+	/** Logical position of the first byte in the file */
+	private long base;
+	/** Logical position just past the last appended entry */
+	private long appended;
+	/** Logical position up to which entries are durable */
+	private long durable;
+	/** True while a thread is writing and forcing pending entries */
+	private boolean flushing;
+	/** Write that failed the log, or null if no write has failed */
+	private IOException failure;
+
+	/**
+	 * Receives the entries of a log being replayed.
+	 */
+	public interface Handler {
+		/**
+		 * Handles one entry.
+		 * @param op ADD or DROP
+		 * @param id student id
+		 * @param courseName course name
+		 */
+		void handle(char op, String id, String courseName);
+	}
+
+	/**
+	 * Opens the log for appending, creating it if it doesn't exist. A
+	 * partial last entry left by a crash is cut off.
+	 * @param fileName log file
+	 * @throws IOException if the log can't be opened
+	 */
+	public EnrollmentLog(String fileName) throws IOException {
+		this.file = new File(fileName);
+		this.charset = Charset.defaultCharset();
+		this.pending = new ByteArrayOutputStream();
+		this.out = new RandomAccessFile(file, "rw");
+		long complete = replay(out.getChannel(), null);
+		out.getChannel().truncate(complete);
+		out.seek(complete);
+		this.appended = complete;
+		this.durable = complete;
+	}
+
+	/**
+	 * Passes every complete entry of a log file to the handler in order. A
+	 * partial last entry is skipped. A missing file has no entries.
+	 * @param fileName log file
+	 * @param handler receives each entry
+	 * @return number of entries replayed
+	 * @throws IOException if the log can't be read
+	 */
+	public static int replay(String fileName, Handler handler) throws IOException {
+		File log = new File(fileName);
+		if (!log.exists()) {
+			return 0;
+		}
+		final int[] count = new int[1];
+		final Handler counted = handler;
+		RandomAccessFile in = new RandomAccessFile(log, "r");
+		try {
+			replay(in.getChannel(), new Handler() {
+				@Override
+				public void handle(char op, String id, String courseName) {
+					count[0]++;
+					counted.handle(op, id, courseName);
+				}
+			});
+		} finally {
+			in.close();
+		}
+		return count[0];
+	}
+
+	/**
+	 * Reads every complete entry of an open log.
+	 * @param channel log to read
+	 * @param handler receives each entry, or null to only find the end
+	 * @return number of bytes holding complete entries
+	 * @throws IOException if the log can't be read or is too large to map
+	 */
+	private static long replay(FileChannel channel, final Handler handler) throws IOException {
+		long size = channel.size();
+		if (size == 0) {
+			return 0;
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Log longer than " + Integer.MAX_VALUE + " bytes");
+		}
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		RecordTokenizer.Bytes tokenizer = new RecordTokenizer.Bytes(Charset.defaultCharset());
+		//Not the last range, so a line without a terminator is left unread
+		return MappedRecordReader.readLines(buffer, 0, (int) size, false, tokenizer,
+				new MappedRecordReader.RecordHandler() {
+					@Override
+					public void handle(RecordTokenizer record) {
+						if (handler != null) {
+							handleEntry(record, handler);
+						}
+					}
+				});
+	}
+
+	/**
+	 * Parses one entry and passes it to the handler. Malformed entries are
+	 * ignored.
+	 * @param record tokenizer positioned at the start of the entry
+	 * @param handler receives the entry
+	 */
+	private static void handleEntry(RecordTokenizer record, Handler handler) {
+		try {
+			String op = record.next();
+			String id = record.next();
+			String courseName = record.next();
+			if (op.length() == 1 && (op.charAt(0) == ADD || op.charAt(0) == DROP) && !record.hasNext()) {
+				handler.handle(op.charAt(0), id, courseName);
+			}
+		} catch (NoSuchElementException e) {
+			//Ignore the malformed entry
+		}
+	}
+
+	/**
+	 * Buffers an entry. The entry isn't durable until sync() is called with
+	 * the returned position.
+	 * @param op ADD or DROP
+	 * @param id student id
+	 * @param courseName course name
+	 * @return logical position just past the entry
+	 */
+	public synchronized long append(char op, String id, String courseName) {
+		if (op != ADD && op != DROP) {
+			throw new IllegalArgumentException();
+		}
+		byte[] entry = (op + "," + id + "," + courseName).getBytes(charset);
+		pending.write(entry, 0, entry.length);
+		pending.write(NEWLINE);
+		appended += entry.length + 1;
+		return appended;
+	}
+
+	/**
+	 * Waits until every entry up to the given position is on disk. If no
+	 * other thread is writing, this thread writes all buffered entries, its
+	 * own and any appended by other threads, with a single force.
+	 * @param position position returned by append()
+	 * @throws IOException if the entries can't be written, or a write has
+	 * already failed
+	 */
+	public void sync(long position) throws IOException {
+		byte[] batch;
+		long target;
+		synchronized (this) {
+			while (durable < position && flushing) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted waiting for the log");
+				}
+			}
+			if (durable >= position) {
+				return;
+			}
+			checkFailure();
+			flushing = true;
+			batch = pending.toByteArray();
+			pending.reset();
+			target = appended;
+		}
+		boolean written = false;
+		IOException error = null;
+		try {
+			write(batch);
+			written = true;
+		} catch (IOException e) {
+			error = e;
+			throw e;
+		} finally {
+			synchronized (this) {
+				flushing = false;
+				if (written) {
+					durable = target;
+				} else {
+					//The callers of the batch are told it failed, so it must
+					//never reach the disk later
+					fail(error);
+				}
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Fails the log for good and drops the entries not yet written. Must be
+	 * called while holding this log's lock.
+	 * @param error write that failed, or null if it failed without one
+	 */
+	private void fail(IOException error) {
+		failure = error != null ? error : new IOException("Write failed");
+		pending.reset();
+	}
+
+	/**
+	 * Throws if an earlier write failed the log. Must be called while
+	 * holding this log's lock.
+	 * @throws IOException if a write has failed
+	 */
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw new IOException("Log failed: " + failure.getMessage(), failure);
+		}
+	}
+
+	/**
+	 * Writes bytes to the end of the log and forces them to disk.
+	 * @param batch bytes to write
+	 * @throws IOException if the bytes can't be written
+	 */
+	private void write(byte[] batch) throws IOException {
+		FileChannel channel = out.getChannel();
+		long start = channel.position();
+		ByteBuffer buffer = ByteBuffer.wrap(batch);
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			//Cut off a partial batch so a retry doesn't leave a torn entry
+			//in the middle of the log
+			try {
+				channel.truncate(start);
+				channel.position(start);
+			} catch (IOException ignored) {
+				//The original failure is the one to report
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the logical position just past the last appended entry.
+	 * @return current end of the log
+	 */
+	public synchronized long position() {
+		return appended;
+	}
+
+	/**
+	 * Discards every entry before the given position, keeping the rest. The
+	 * kept entries are written to a new file that replaces the log, so a
+	 * crash leaves either the old log or the new one. If the new file can't
+	 * replace the old one, the old one is kept open and nothing is discarded.
+	 * @param position position recorded before a checkpoint
+	 * @throws IOException if the log can't be rewritten, or a write has
+	 * already failed
+	 */
+	public synchronized void truncate(long position) throws IOException {
+		awaitFlush();
+		checkFailure();
+		if (position < base || position > appended) {
+			throw new IllegalArgumentException();
+		}
+		//Make everything appended so far part of the file
+		try {
+			write(pending.toByteArray());
+		} catch (IOException e) {
+			fail(e);
+			throw e;
+		}
+		pending.reset();
+		durable = appended;
+
+		File next = new File(file.getPath() + ".tmp");
+		RandomAccessFile copy = new RandomAccessFile(next, "rw");
+		try {
+			copy.setLength(0);
+			FileChannel from = out.getChannel();
+			long start = position - base;
+			long size = from.size();
+			while (start < size) {
+				start += from.transferTo(start, size - start, copy.getChannel());
+			}
+			copy.getChannel().force(true);
+		} finally {
+			copy.close();
+		}
+		out.close();
+		try {
+			Files.move(next.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			//Open whichever file is now the log, the new one or, if the move
+			//failed, the old one, so the log can still be used
+			try {
+				out = new RandomAccessFile(file, "rw");
+				out.seek(out.length());
+			} catch (IOException e) {
+				fail(e);
+				throw e;
+			}
+		}
+		base = position;
+	}
+
+	/**
+	 * Waits until no thread is writing to the file. Must be called while
+	 * holding this log's lock.
+	 * @throws IOException if interrupted while waiting
+	 */
+	private void awaitFlush() throws IOException {
+		while (flushing) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted waiting for the log");
+			}
+		}
+	}
+
+	/**
+	 * Writes any buffered entries, unless a write has failed the log, and
+	 * closes the log.
+	 * @throws IOException if the entries can't be written
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			awaitFlush();
+			if (failure == null && pending.size() > 0) {
+				write(pending.toByteArray());
+				pending.reset();
+				durable = appended;
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
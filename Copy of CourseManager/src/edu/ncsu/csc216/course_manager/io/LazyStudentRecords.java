@@ -0,0 +1,482 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Index of a student records file whose students are only created when they
+ * are needed. Opening the file memory-maps it and records where each line
+ * starts and where its id is, without creating a Student or any String that
+ * is kept. Each line still claims a seat in every course it lists, in file
+ * order, so course capacities are the same as after a full load.
+ *
+ * A Student is parsed from its line by hydrate(id), hydrate(course) or
+ * hydrateAll(), and is then given the seats its line claimed. A line that
+ * fails a check made only when it is parsed, such as an invalid email, gives
+ * its seats back and is ignored, as it would be by
+ * StudentRecordIO.readStudentRecords(). A line repeating the id of an earlier
+ * line is ignored when the file is opened, unless the earlier line would
+ * fail those checks; the earlier line then gives its seats back and the later
+ * one takes its place, so the first line with the id that can be loaded is
+ * the one kept.
+ * @author Andrew Northrup
+ *
+ */
+public final class LazyStudentRecords {
+	/** State of a line whose student hasn't been created */
+	private static final byte PENDING = 0;
+	/** State of a line whose student has been created and enrolled */
+	private static final byte LOADED = 1;
+	/** State of a line that was ignored when it was parsed */
+	private static final byte REJECTED = 2;
+	/** Number of lines the arrays start with room for */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Contents of the file */
+	private final ByteBuffer buffer;
+	/** Tokenizer for parsing a line */
+	private final RecordTokenizer.Bytes tokenizer;
+	/** Charset ids are encoded with */
+	private final Charset charset;
+	/** Offset of the start of each indexed line */
+	private int[] starts;
+	/** Offset of the id field of each indexed line */
+	private int[] idStarts;
+	/** Offset just past the end of each indexed line */
+	private int[] ends;
+	/** State of each indexed line */
+	private byte[] states;
+	/** Number of indexed lines */
+	private int count;
+	/** Number of indexed lines still pending */
+	private int pending;
+	/** Open-addressing hash table of line number + 1 keyed by id, 0 if empty */
+	private int[] table;
+	/** Pending lines of each course */
+	private final IdentityHashMap<Course, Lines> waiting;
+
+	/**
+	 * Growable list of line numbers.
+	 */
+	private static final class Lines {
+		/** Line numbers */
+		private int[] lines = new int[4];
+		/** Number of line numbers used */
+		private int size;
+	}
+
+	/**
+	 * Indexes the given student records file and claims a seat for each
+	 * line in each of its courses, which must already be in the
+	 * CourseManager. Lines with a format error, a course that doesn't exist
+	 * or is full, or more credits than their maximum are ignored.
+	 * @param fileName name of file containing students
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IOException if the file can't be read or is larger than 2GB
+	 */
+	public LazyStudentRecords(String fileName) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(fileName, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File longer than " + Integer.MAX_VALUE + " bytes");
+			}
+			//The mapping stays valid after the file is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		} finally {
+			file.close();
+		}
+		charset = Charset.defaultCharset();
+		tokenizer = new RecordTokenizer.Bytes(charset);
+		starts = new int[INITIAL_CAPACITY];
+		idStarts = new int[INITIAL_CAPACITY];
+		ends = new int[INITIAL_CAPACITY];
+		states = new byte[INITIAL_CAPACITY];
+		table = new int[INITIAL_CAPACITY * 2];
+		waiting = new IdentityHashMap<Course, Lines>();
+		final CourseManager manager = CourseManager.getInstance();
+		MappedRecordReader.readLines(buffer, 0, buffer.limit(), true, new RecordTokenizer.Bytes(charset),
+				new MappedRecordReader.RecordHandler() {
+					@Override
+					public void handle(RecordTokenizer record) {
+						index(record, manager);
+					}
+				});
+	}
+
+	/**
+	 * Checks a line and, if it can be loaded, claims its seats and adds it
+	 * to the index.
+	 * @param record tokenizer positioned at the start of the line
+	 * @param manager manager holding the courses
+	 */
+	private void index(RecordTokenizer record, CourseManager manager) {
+		int start = record.pos;
+		int end = record.end;
+		List<Course> courses = new ArrayList<Course>(4);
+		int idStart;
+		String id;
+		int earlier;
+		try {
+			record.next();
+			record.next();
+			idStart = record.pos < end && buffer.get(record.pos) == RecordTokenizer.DELIMITER
+					? record.pos + 1 : record.pos;
+			id = record.next();
+			record.next();
+			record.next();
+			int maxCredits = record.nextInt();
+			int credits = 0;
+			while (record.hasNext()) {
+				Course c = manager.getCourseByName(record.next());
+				if (c == null || courses.contains(c)) {
+					return;
+				}
+				credits += c.getCredits();
+				courses.add(c);
+			}
+			if (maxCredits < 0 || maxCredits > Student.MAX_CREDITS || credits > maxCredits) {
+				return;
+			}
+			earlier = find(id);
+			if (earlier >= 0) {
+				//Only duplicates are parsed early, to see which line is kept
+				if (parse(earlier) != null) {
+					return;
+				}
+				reject(earlier);
+			}
+		} catch (NoSuchElementException e) {
+			return;
+		}
+		for (int i = 0; i < courses.size(); i++) {
+			if (!courses.get(i).reserveSeat()) {
+				for (int j = 0; j < i; j++) {
+					courses.get(j).releaseSeat();
+				}
+				return;
+			}
+		}
+
+		if (count == starts.length) {
+			int capacity = count * 2;
+			starts = Arrays.copyOf(starts, capacity);
+			idStarts = Arrays.copyOf(idStarts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			states = Arrays.copyOf(states, capacity);
+		}
+		if ((count + 1) * 2 > table.length) {
+			rehash(table.length * 2);
+		}
+		int r = count++;
+		starts[r] = start;
+		idStarts[r] = idStart;
+		ends[r] = end;
+		states[r] = PENDING;
+		pending++;
+		if (earlier >= 0) {
+			replace(earlier, r);
+		} else {
+			insert(r);
+		}
+		for (int i = 0; i < courses.size(); i++) {
+			addWaiting(courses.get(i), r);
+		}
+	}
+
+	/**
+	 * Adds a line to the pending lines of a course.
+	 * @param course course the line lists
+	 * @param r line number
+	 */
+	private void addWaiting(Course course, int r) {
+		Lines lines = waiting.get(course);
+		if (lines == null) {
+			lines = new Lines();
+			waiting.put(course, lines);
+		} else if (lines.size == lines.lines.length) {
+			lines.lines = Arrays.copyOf(lines.lines, lines.size * 2);
+		}
+		lines.lines[lines.size++] = r;
+	}
+
+	/**
+	 * Returns the number of lines that are indexed.
+	 * @return lines that can be loaded
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of indexed lines whose student hasn't been created.
+	 * @return lines not yet loaded
+	 */
+	public synchronized int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * Returns the courses that have students still waiting to be loaded.
+	 * @return courses with pending students
+	 */
+	public synchronized List<Course> getWaitingCourses() {
+		return new ArrayList<Course>(waiting.keySet());
+	}
+
+	/**
+	 * Creates the student with the given id, if its line is pending, and
+	 * enrolls it in its courses.
+	 * @param id student id
+	 * @return the new student, or null if no pending line has the id or the
+	 * line can't be loaded
+	 */
+	public synchronized Student hydrate(String id) {
+		int r = find(id);
+		return r < 0 ? null : hydrate(r);
+	}
+
+	/**
+	 * Creates every pending student of the given course and enrolls them in
+	 * their courses, in file order.
+	 * @param course course whose roster is needed
+	 * @return the new students
+	 */
+	public synchronized List<Student> hydrate(Course course) {
+		List<Student> loaded = new ArrayList<Student>();
+		Lines lines = waiting.remove(course);
+		for (int i = 0; lines != null && i < lines.size; i++) {
+			Student s = hydrate(lines.lines[i]);
+			if (s != null) {
+				loaded.add(s);
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Creates every pending student and enrolls them in their courses, in
+	 * file order.
+	 * @return the new students
+	 */
+	public synchronized List<Student> hydrateAll() {
+		List<Student> loaded = new ArrayList<Student>(pending);
+		for (int r = 0; r < count; r++) {
+			Student s = hydrate(r);
+			if (s != null) {
+				loaded.add(s);
+			}
+		}
+		waiting.clear();
+		return loaded;
+	}
+
+	/**
+	 * Creates the student of a pending line and gives it the seats the line
+	 * claimed. If the student is invalid or can't take a seat, every seat
+	 * of the line is given back.
+	 * @param r line number
+	 * @return the new student, or null if the line isn't pending or can't be
+	 * loaded
+	 */
+	private Student hydrate(int r) {
+		if (states[r] != PENDING) {
+			return null;
+		}
+		pending--;
+		states[r] = REJECTED;
+		CourseManager manager = CourseManager.getInstance();
+		Student s = parse(r);
+		boolean linked = s != null;
+		while (tokenizer.hasNext()) {
+			Course c = manager.getCourseByName(tokenizer.next());
+			if (c == null) {
+				//The courses were cleared, so there is no seat to give back
+				linked = false;
+			} else if (!linked) {
+				c.releaseSeat();
+			} else if (!c.commitSeat(s)) {
+				//commitSeat gave the seat back
+				linked = false;
+			} else if (!s.addCourse(c)) {
+				c.drop(s);
+				linked = false;
+			}
+		}
+		if (!linked) {
+			if (s != null) {
+				Course[] added = s.getCourses();
+				for (int i = 0; i < added.length; i++) {
+					added[i].drop(s);
+					s.removeCourse(added[i]);
+				}
+			}
+			return null;
+		}
+		states[r] = LOADED;
+		return s;
+	}
+
+	/**
+	 * Creates the student of a line, leaving the tokenizer at its first
+	 * course.
+	 * @param r line number
+	 * @return the new student, or null if the line fails the checks made by
+	 * Student
+	 */
+	private Student parse(int r) {
+		//The line was checked when it was indexed, so every field is there
+		tokenizer.reset(buffer, starts[r], ends[r]);
+		String firstName = tokenizer.next();
+		String lastName = tokenizer.next();
+		String id = tokenizer.next();
+		String email = tokenizer.next();
+		String password = tokenizer.next();
+		int maxCredits = tokenizer.nextInt();
+		try {
+			Student s = new Student(firstName, lastName, id, email, password);
+			s.setMaxCredits(maxCredits);
+			return s;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Rejects a pending line while the file is being indexed and gives back
+	 * the seats it claimed.
+	 * @param r line number
+	 */
+	private void reject(int r) {
+		pending--;
+		states[r] = REJECTED;
+		CourseManager manager = CourseManager.getInstance();
+		tokenizer.reset(buffer, starts[r], ends[r]);
+		//Skip the name, id, email, password and max credits
+		for (int i = 0; i < 6; i++) {
+			tokenizer.next();
+		}
+		while (tokenizer.hasNext()) {
+			manager.getCourseByName(tokenizer.next()).releaseSeat();
+		}
+	}
+
+	/**
+	 * Returns the line number of the given id.
+	 * @param id student id
+	 * @return line number, or -1 if no indexed line has the id
+	 */
+	private int find(String id) {
+		byte[] key = id.getBytes(charset);
+		int h = 0;
+		for (int i = 0; i < key.length; i++) {
+			h = 31 * h + key[i];
+		}
+		int mask = table.length - 1;
+		for (int i = spread(h) & mask; table[i] != 0; i = (i + 1) & mask) {
+			int r = table[i] - 1;
+			int idStart = idStarts[r];
+			if (idEnd(r) - idStart == key.length) {
+				int j = 0;
+				while (j < key.length && buffer.get(idStart + j) == key[j]) {
+					j++;
+				}
+				if (j == key.length) {
+					return r;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds a line to the hash table.
+	 * @param r line number
+	 */
+	private void insert(int r) {
+		int mask = table.length - 1;
+		int i = slot(r) & mask;
+		while (table[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		table[i] = r + 1;
+	}
+
+	/**
+	 * Returns the spread hash of the id of a line.
+	 * @param r line number
+	 * @return hash of the id
+	 */
+	private int slot(int r) {
+		int h = 0;
+		for (int i = idStarts[r]; i < idEnd(r); i++) {
+			h = 31 * h + buffer.get(i);
+		}
+		return spread(h);
+	}
+
+	/**
+	 * Points the hash table entry of a line at another line with the same
+	 * id.
+	 * @param old line number in the table
+	 * @param r line number to put in its place
+	 */
+	private void replace(int old, int r) {
+		int mask = table.length - 1;
+		int i = slot(r) & mask;
+		while (table[i] != old + 1) {
+			i = (i + 1) & mask;
+		}
+		table[i] = r + 1;
+	}
+
+	/**
+	 * Replaces the hash table with a larger one.
+	 * @param capacity new table size, a power of two
+	 */
+	private void rehash(int capacity) {
+		table = new int[capacity];
+		for (int r = 0; r < count; r++) {
+			insert(r);
+		}
+	}
+
+	/**
+	 * Returns the offset just past the id field of a line.
+	 * @param r line number
+	 * @return end of the id
+	 */
+	private int idEnd(int r) {
+		int i = idStarts[r];
+		while (i < ends[r] && buffer.get(i) != RecordTokenizer.DELIMITER) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Mixes the high bits of a hash into the low bits used by the table.
+	 * @param h hash of an id
+	 * @return spread hash
+	 */
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a file by memory-mapping it and tokenizing each line
+ * straight from the mapped bytes. Files larger than one mapping window are
+ * mapped a window at a time; a line that crosses the end of a window is read
+ * from the start of the next window. Lines end at "\n", "\r\n" or "\r", the
+ * same as BufferedReader.readLine().
+ * @author Andrew Northrup
+ *
+ */
+final class MappedRecordReader {
+	/** Number of bytes read at a time while looking for a line start */
+	private static final int BOUNDARY_SCAN_SIZE = 8192;
+	/** Default number of bytes mapped at once */
+	static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+	/** File being read */
+	private final RandomAccessFile file;
+	/** Number of bytes mapped at once */
+	private final int windowSize;
+	/** Charset used to decode fields */
+	private final Charset charset;
+
+	/**
+	 * Receives each record read from the file.
+	 */
+	interface RecordHandler {
+		/**
+		 * Handles a single record.
+		 * @param record tokenizer positioned at the start of the record
+		 */
+		void handle(RecordTokenizer record);
+	}
+
+	/**
+	 * Opens the given file for mapped reading with the default window size.
+	 * Fields are decoded with the platform's default charset, the same as a
+	 * FileReader.
+	 * @param fileName name of file to read
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	MappedRecordReader(String fileName) throws FileNotFoundException {
+		this(fileName, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Opens the given file for mapped reading, mapping at most windowSize bytes
+	 * at once.
+	 * @param fileName name of file to read
+	 * @param windowSize number of bytes mapped at once
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	MappedRecordReader(String fileName, int windowSize) throws FileNotFoundException {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.file = new RandomAccessFile(fileName, "r");
+		this.windowSize = windowSize;
+		this.charset = Charset.defaultCharset();
+	}
+
+	/**
+	 * Passes every line of the file to the handler in file order and closes
+	 * the file.
+	 * @param handler receives each line
+	 * @throws IOException if the file cannot be read or a line is longer than
+	 * the mapping window
+	 */
+	void read(RecordHandler handler) throws IOException {
+		try {
+			FileChannel channel = file.getChannel();
+			RecordTokenizer.Bytes tokenizer = new RecordTokenizer.Bytes(charset);
+			long size = channel.size();
+			long position = 0;
+			while (position < size) {
+				int length = (int) Math.min(windowSize, size - position);
+				boolean last = position + length == size;
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int consumed = readLines(window, 0, length, last, tokenizer, handler);
+				if (consumed == 0 && !last) {
+					throw new IOException("Record longer than " + windowSize + " bytes at offset " + position);
+				}
+				position += consumed;
+			}
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * Splits the file into ranges of about chunkSize bytes that each start at
+	 * the beginning of a line. A "\r\n" pair is never split between ranges.
+	 * @param chunkSize target number of bytes in each range
+	 * @return offsets of the range starts followed by the file size
+	 * @throws IOException if the file cannot be read
+	 */
+	long[] chunkBoundaries(long chunkSize) throws IOException {
+		FileChannel channel = file.getChannel();
+		long size = channel.size();
+		List<Long> bounds = new ArrayList<Long>();
+		bounds.add(0L);
+		ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long next = chunkSize;
+		while (next < size) {
+			long boundary = nextLineStart(channel, next, size, scan);
+			if (boundary >= size) {
+				break;
+			}
+			bounds.add(boundary);
+			next = boundary + chunkSize;
+		}
+		bounds.add(size);
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first position at or after from that starts a line.
+	 * @param channel channel for the file
+	 * @param from position to start looking
+	 * @param size size of the file
+	 * @param scan buffer used to read the file
+	 * @return start of the next line, or size if there is none
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer scan)
+			throws IOException {
+		//Read from one byte before so the previous byte's terminator is seen
+		long position = from - 1;
+		byte previous = 0;
+		boolean first = true;
+		while (position < size) {
+			scan.clear();
+			int read = channel.read(scan, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				byte b = scan.get(i);
+				if (!first && (previous == '\n' || (previous == '\r' && b != '\n'))) {
+					return position + i;
+				}
+				previous = b;
+				first = false;
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Passes every line between the two offsets to the handler in file order.
+	 * The range must start at a line start and end at a line start or the end
+	 * of the file, as given by chunkBoundaries(). Ranges may be read from
+	 * several threads at once, each with its own handler.
+	 * @param start offset of the first line
+	 * @param stop offset just past the last line
+	 * @param handler receives each line
+	 * @throws IOException if the file cannot be read
+	 */
+	void readRange(long start, long stop, RecordHandler handler) throws IOException {
+		if (stop - start > Integer.MAX_VALUE) {
+			throw new IOException("Range longer than " + Integer.MAX_VALUE + " bytes");
+		}
+		int length = (int) (stop - start);
+		MappedByteBuffer range = file.getChannel().map(FileChannel.MapMode.READ_ONLY, start, length);
+		readLines(range, 0, length, true, new RecordTokenizer.Bytes(charset), handler);
+	}
+
+	/**
+	 * Closes the file.
+	 * @throws IOException if the file cannot be closed
+	 */
+	void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Passes each complete line between start and stop to the handler. When the
+	 * range is the end of the file the last line does not need a terminator;
+	 * otherwise a line without one is left for the next call.
+	 * @param buffer bytes to read
+	 * @param start position of the first line
+	 * @param stop position just past the last byte to read
+	 * @param last true if stop is the end of the file
+	 * @param tokenizer tokenizer reset for each line
+	 * @param handler receives each line
+	 * @return number of bytes consumed, including line terminators
+	 */
+	static int readLines(ByteBuffer buffer, int start, int stop, boolean last,
+			RecordTokenizer.Bytes tokenizer, RecordHandler handler) {
+		int lineStart = start;
+		int i = start;
+		while (i < stop) {
+			byte b = buffer.get(i);
+			if (b == '\n') {
+				handler.handle(tokenizer.reset(buffer, lineStart, i));
+				lineStart = ++i;
+			} else if (b == '\r') {
+				if (i + 1 == stop && !last) {
+					//Can't tell yet whether this is a \r\n pair
+					break;
+				}
+				handler.handle(tokenizer.reset(buffer, lineStart, i));
+				i++;
+				if (i < stop && buffer.get(i) == '\n') {
+					i++;
+				}
+				lineStart = i;
+			} else {
+				i++;
+			}
+		}
+		if (last && lineStart < stop) {
+			handler.handle(tokenizer.reset(buffer, lineStart, stop));
+			lineStart = stop;
+		}
+		return lineStart - start;
+	}
+}
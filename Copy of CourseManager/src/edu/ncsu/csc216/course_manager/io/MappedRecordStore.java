@@ -0,0 +1,46 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.IOException;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Keeps courses and students in the same text files as TextRecordStore, but
+ * reads the student file with StudentRecordIO.readStudentRecordsParallel(),
+ * which memory-maps the file and parses it on every core. Best for large
+ * student files.
+ * @author Andrew Northrup
+ *
+ */
+public class MappedRecordStore extends TextRecordStore {
+	/**
+	 * Reads the students with StudentRecordIO.readStudentRecordsParallel().
+	 * @param fileName name of file containing students
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist or cannot be read
+	 */
+	@Override
+	public List<Student> readStudents(String fileName) throws IOException {
+		return StudentRecordIO.readStudentRecordsParallel(fileName);
+	}
+
+	/**
+	 * Reads the students with StudentRecordIO.readStudentRecordsParallel(),
+	 * telling the listener about each chunk of the file once its students
+	 * have been enrolled.
+	 * @param fileName name of file containing students
+	 * @param listener listener told how much has been read
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read or the
+	 * thread is interrupted
+	 */
+	@Override
+	public List<Student> readStudents(String fileName, ProgressListener listener) throws IOException {
+		return StudentRecordIO.readStudentRecordsParallel(fileName, listener);
+	}
+}
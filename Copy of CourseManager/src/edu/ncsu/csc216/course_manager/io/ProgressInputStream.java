@@ -0,0 +1,118 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Stream that tells a RecordStore.ProgressListener how many bytes have been
+ * read, and stops with an InterruptedIOException once the reading thread is
+ * interrupted so a load can be cancelled part way through.
+ * @author Andrew Northrup
+ *
+ */
+final class ProgressInputStream extends FilterInputStream {
+	/** Bytes in the whole stream */
+	private final long total;
+	/** Listener told about each read */
+	private final RecordStore.ProgressListener listener;
+	/** Bytes read so far */
+	private long count;
+
+	/**
+	 * Creates a stream that reports reads of the given stream.
+	 * @param in stream to read
+	 * @param total bytes in the whole stream
+	 * @param listener listener told about each read
+	 */
+	ProgressInputStream(InputStream in, long total, RecordStore.ProgressListener listener) {
+		super(in);
+		this.total = total;
+		this.listener = listener;
+	}
+
+	/**
+	 * Reads one byte.
+	 * @return byte read, or -1 at the end of the stream
+	 * @throws InterruptedIOException if the thread has been interrupted
+	 * @throws IOException if the stream can't be read
+	 */
+	@Override
+	public int read() throws IOException {
+		checkInterrupted();
+		int b = super.read();
+		if (b >= 0) {
+			advance(1);
+		}
+		return b;
+	}
+
+	/**
+	 * Reads up to len bytes.
+	 * @param b array to read into
+	 * @param off offset of the first byte
+	 * @param len most bytes to read
+	 * @return number of bytes read, or -1 at the end of the stream
+	 * @throws InterruptedIOException if the thread has been interrupted
+	 * @throws IOException if the stream can't be read
+	 */
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		checkInterrupted();
+		int n = super.read(b, off, len);
+		if (n > 0) {
+			advance(n);
+		}
+		return n;
+	}
+
+	/**
+	 * Skips up to n bytes.
+	 * @param n most bytes to skip
+	 * @return number of bytes skipped
+	 * @throws InterruptedIOException if the thread has been interrupted
+	 * @throws IOException if the stream can't be read
+	 */
+	@Override
+	public long skip(long n) throws IOException {
+		checkInterrupted();
+		long skipped = super.skip(n);
+		if (skipped > 0) {
+			advance(skipped);
+		}
+		return skipped;
+	}
+
+	/**
+	 * Marking isn't supported, so a reset can't move the count backwards.
+	 * @return false
+	 */
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * Adds to the count and tells the listener.
+	 * @param n bytes just read
+	 */
+	private void advance(long n) {
+		count += n;
+		listener.bytesRead(count, total);
+	}
+
+	/**
+	 * Stops the read if the thread has been interrupted. The interrupt is
+	 * left set for the code that cancelled the read.
+	 * @throws InterruptedIOException if the thread has been interrupted
+	 */
+	private static void checkInterrupted() throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedIOException("Loading was cancelled");
+		}
+	}
+}
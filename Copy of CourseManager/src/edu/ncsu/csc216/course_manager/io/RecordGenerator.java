@@ -0,0 +1,481 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Generates synthetic course and student record files for benchmarks and load
+ * tests. Every line of the generated files is valid: students never exceed
+ * their maximum credits, never list a course twice, and every course has room
+ * for all of the students that list it, in file order. The files depend only
+ * on the settings and the seed, so the same generator always writes the same
+ * bytes.
+ *
+ * Course i is named by courseName(i) and student i has the id studentId(i).
+ * Every student has the same password, which is stored as the raw SHA-256
+ * digest bytes. Reading those bytes back with the platform charset gives
+ * exactly the String that CourseManager.login() builds from a digest.
+ * @author Andrew Northrup
+ *
+ */
+public class RecordGenerator {
+	/** Hashing algorithm used by CourseManager.login() */
+	private static final String HASH_ALGORITHM = "SHA-256";
+	/** Random stream offset for courses, so course and student streams differ */
+	private static final long COURSE_STREAM = 0x436f75727365L;
+	/** Random stream offset for students */
+	private static final long STUDENT_STREAM = 0x53747564656eL;
+	/** Line terminator written after each record */
+	private static final int NEWLINE = '\n';
+	/** Separator between fields of a record */
+	private static final int DELIMITER = ',';
+
+	/** Seed for every random choice */
+	private final long seed;
+	/** Number of courses to generate */
+	private int courseCount = 100;
+	/** Number of students to generate */
+	private int studentCount = 1000;
+	/** Fewest courses listed on a student line */
+	private int minCoursesPerStudent = 0;
+	/** Most courses listed on a student line */
+	private int maxCoursesPerStudent = 5;
+	/** Zipf exponent for course popularity; 0 picks courses uniformly */
+	private double popularitySkew = 1.0;
+	/** Relative weight of each credit value from MIN_HOURS to MAX_HOURS */
+	private int[] creditWeights = {1, 1, 6, 2};
+	/** Fewest credits each student has left under their maximum */
+	private int minFreeCredits = 0;
+	/** Fewest letters in a first or last name */
+	private int minNameLength = 3;
+	/** Most letters in a first or last name */
+	private int maxNameLength = 10;
+	/** Fraction of extra seats each course has over its enrollment */
+	private double capacitySlack = 0.1;
+	/** Password of every student */
+	private String password = "pw";
+	/** Digest of the password, written in place of the password */
+	private byte[] passwordHash = hash(password);
+
+	/** Credits of each course, filled in by plan() */
+	private int[] credits;
+	/** Capacity of each course, filled in by plan() */
+	private int[] capacity;
+	/** Cumulative popularity weight of each course, filled in by plan() */
+	private double[] popularity;
+
+	/**
+	 * Creates a generator with default settings and the given seed.
+	 * @param seed seed for every random choice
+	 */
+	public RecordGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of courses to generate.
+	 * @param courseCount number of courses
+	 */
+	public void setCourseCount(int courseCount) {
+		if (courseCount < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.courseCount = courseCount;
+		credits = null;
+	}
+
+	/**
+	 * Sets the number of students to generate.
+	 * @param studentCount number of students
+	 */
+	public void setStudentCount(int studentCount) {
+		if (studentCount < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.studentCount = studentCount;
+		credits = null;
+	}
+
+	/**
+	 * Sets the range of the number of courses listed on each student line. A
+	 * student may list fewer courses if the catalog is small or more would
+	 * exceed the maximum credits a student may take.
+	 * @param min fewest courses per student
+	 * @param max most courses per student
+	 */
+	public void setCoursesPerStudent(int min, int max) {
+		if (min < 0 || max < min) {
+			throw new IllegalArgumentException();
+		}
+		this.minCoursesPerStudent = min;
+		this.maxCoursesPerStudent = max;
+		credits = null;
+	}
+
+	/**
+	 * Sets how unevenly students are spread over courses. Course i is picked
+	 * with weight 1 / (i + 1)^skew, so 0 spreads students evenly and larger
+	 * values crowd them into the first courses.
+	 * @param skew Zipf exponent for course popularity
+	 */
+	public void setPopularitySkew(double skew) {
+		if (skew < 0 || Double.isNaN(skew) || Double.isInfinite(skew)) {
+			throw new IllegalArgumentException();
+		}
+		this.popularitySkew = skew;
+		credits = null;
+	}
+
+	/**
+	 * Sets the mix of course credits. The weights are for each credit value
+	 * from Course.MIN_HOURS to Course.MAX_HOURS.
+	 * @param weights relative weight of each credit value
+	 */
+	public void setCreditWeights(int... weights) {
+		if (weights.length != Course.MAX_HOURS - Course.MIN_HOURS + 1) {
+			throw new IllegalArgumentException();
+		}
+		int total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] < 0) {
+				throw new IllegalArgumentException();
+			}
+			total += weights[i];
+		}
+		if (total == 0) {
+			throw new IllegalArgumentException();
+		}
+		this.creditWeights = weights.clone();
+		credits = null;
+	}
+
+	/**
+	 * Sets the fewest credits each student can still add after the courses
+	 * listed on their line. Students list fewer courses if needed to leave the
+	 * room.
+	 * @param free fewest unused credits per student
+	 */
+	public void setMinFreeCredits(int free) {
+		if (free < 0 || free > Student.MAX_CREDITS) {
+			throw new IllegalArgumentException();
+		}
+		this.minFreeCredits = free;
+		credits = null;
+	}
+
+	/**
+	 * Sets the range of lengths of generated first and last names.
+	 * @param min fewest letters in a name
+	 * @param max most letters in a name
+	 */
+	public void setNameLength(int min, int max) {
+		if (min < 1 || max < min) {
+			throw new IllegalArgumentException();
+		}
+		this.minNameLength = min;
+		this.maxNameLength = max;
+		credits = null;
+	}
+
+	/**
+	 * Sets the fraction of extra seats each course has over the number of
+	 * students enrolled in it by the generated student file.
+	 * @param slack fraction of extra seats, 0 for full courses
+	 */
+	public void setCapacitySlack(double slack) {
+		if (slack < 0 || Double.isNaN(slack) || Double.isInfinite(slack)) {
+			throw new IllegalArgumentException();
+		}
+		this.capacitySlack = slack;
+		credits = null;
+	}
+
+	/**
+	 * Sets the password of every generated student. The password's digest is
+	 * written to the file as raw bytes, so passwords whose digest contains a
+	 * comma or line terminator byte can't be used.
+	 * @param password password for every student
+	 */
+	public void setPassword(String password) {
+		if (password == null || password.length() == 0) {
+			throw new IllegalArgumentException();
+		}
+		byte[] digest = hash(password);
+		this.password = password;
+		this.passwordHash = digest;
+	}
+
+	/**
+	 * Gets the password of every generated student.
+	 * @return the password
+	 */
+	public String getPassword() {
+		return password;
+	}
+
+	/**
+	 * Returns the name of the given generated course.
+	 * @param i course number
+	 * @return course name
+	 */
+	public static String courseName(int i) {
+		return "CRS" + (100 + i);
+	}
+
+	/**
+	 * Returns the id of the given generated student.
+	 * @param i student number
+	 * @return student id
+	 */
+	public static String studentId(int i) {
+		return "student" + i;
+	}
+
+	/**
+	 * Writes the course records file.
+	 * @param fileName file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeCourseRecords(String fileName) throws IOException {
+		plan();
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16);
+		try {
+			for (int i = 0; i < courseCount; i++) {
+				writeAscii(out, courseName(i));
+				out.write(DELIMITER);
+				writeAscii(out, Integer.toString(credits[i]));
+				out.write(DELIMITER);
+				writeAscii(out, Integer.toString(capacity[i]));
+				out.write(NEWLINE);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the student records file. Every student on it can be loaded once
+	 * the course records file from this generator has been loaded.
+	 * @param fileName file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeStudentRecords(String fileName) throws IOException {
+		plan();
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16);
+		try {
+			Random random = new Random(seed + STUDENT_STREAM);
+			int[] picks = new int[maxCoursesPerStudent];
+			StringBuilder first = new StringBuilder();
+			StringBuilder last = new StringBuilder();
+			for (int i = 0; i < studentCount; i++) {
+				int courses = pickCourses(random, picks);
+				int taken = 0;
+				for (int j = 0; j < courses; j++) {
+					taken += credits[picks[j]];
+				}
+				int maxCredits = taken + minFreeCredits
+						+ random.nextInt(Student.MAX_CREDITS - taken - minFreeCredits + 1);
+				name(random, first);
+				name(random, last);
+
+				writeAscii(out, first);
+				out.write(DELIMITER);
+				writeAscii(out, last);
+				out.write(DELIMITER);
+				writeAscii(out, studentId(i));
+				out.write(DELIMITER);
+				writeAscii(out, studentId(i));
+				writeAscii(out, "@example.edu");
+				out.write(DELIMITER);
+				out.write(passwordHash);
+				out.write(DELIMITER);
+				writeAscii(out, Integer.toString(maxCredits));
+				for (int j = 0; j < courses; j++) {
+					out.write(DELIMITER);
+					writeAscii(out, courseName(picks[j]));
+				}
+				out.write(NEWLINE);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Chooses each course's credits and counts the students each course gets
+	 * by replaying the student stream, then sizes each course to fit them.
+	 */
+	private void plan() {
+		if (credits != null) {
+			return;
+		}
+		Random random = new Random(seed + COURSE_STREAM);
+		int totalWeight = 0;
+		for (int i = 0; i < creditWeights.length; i++) {
+			totalWeight += creditWeights[i];
+		}
+		credits = new int[courseCount];
+		popularity = new double[courseCount];
+		double cumulative = 0;
+		for (int i = 0; i < courseCount; i++) {
+			int r = random.nextInt(totalWeight);
+			int c = 0;
+			while (r >= creditWeights[c]) {
+				r -= creditWeights[c];
+				c++;
+			}
+			credits[i] = Course.MIN_HOURS + c;
+			cumulative += 1.0 / Math.pow(i + 1, popularitySkew);
+			popularity[i] = cumulative;
+		}
+
+		int[] enrolled = new int[courseCount];
+		Random students = new Random(seed + STUDENT_STREAM);
+		int[] picks = new int[maxCoursesPerStudent];
+		StringBuilder scratch = new StringBuilder();
+		for (int i = 0; i < studentCount; i++) {
+			//Consume the stream exactly as writeStudentRecords() does
+			int courses = pickCourses(students, picks);
+			int taken = 0;
+			for (int j = 0; j < courses; j++) {
+				enrolled[picks[j]]++;
+				taken += credits[picks[j]];
+			}
+			students.nextInt(Student.MAX_CREDITS - taken - minFreeCredits + 1);
+			name(students, scratch);
+			name(students, scratch);
+		}
+		capacity = new int[courseCount];
+		for (int i = 0; i < courseCount; i++) {
+			capacity[i] = Math.max(1, (int) Math.ceil(enrolled[i] * (1 + capacitySlack)));
+		}
+	}
+
+	/**
+	 * Picks the courses for one student: distinct courses chosen by popularity
+	 * whose credits leave minFreeCredits under Student.MAX_CREDITS.
+	 * @param random student stream
+	 * @param picks array filled with the chosen course numbers
+	 * @return number of courses chosen
+	 */
+	private int pickCourses(Random random, int[] picks) {
+		int wanted = minCoursesPerStudent + random.nextInt(maxCoursesPerStudent - minCoursesPerStudent + 1);
+		wanted = Math.min(wanted, courseCount);
+		int count = 0;
+		int taken = 0;
+		//Bounded attempts so a small or crowded catalog can't loop forever
+		for (int attempt = 0; attempt < wanted * 4 && count < wanted; attempt++) {
+			int course = pickCourse(random);
+			boolean duplicate = false;
+			for (int j = 0; j < count; j++) {
+				duplicate |= picks[j] == course;
+			}
+			if (!duplicate && taken + credits[course] + minFreeCredits <= Student.MAX_CREDITS) {
+				picks[count++] = course;
+				taken += credits[course];
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Picks one course by popularity.
+	 * @param random student stream
+	 * @return course number
+	 */
+	private int pickCourse(Random random) {
+		double target = random.nextDouble() * popularity[courseCount - 1];
+		int low = 0;
+		int high = courseCount - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (popularity[mid] <= target) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Fills the builder with a capitalized random name.
+	 * @param random student stream
+	 * @param name builder to fill
+	 */
+	private void name(Random random, StringBuilder name) {
+		name.setLength(0);
+		int length = minNameLength + random.nextInt(maxNameLength - minNameLength + 1);
+		name.append((char) ('A' + random.nextInt(26)));
+		for (int i = 1; i < length; i++) {
+			name.append((char) ('a' + random.nextInt(26)));
+		}
+	}
+
+	/**
+	 * Writes ASCII text as single bytes.
+	 * @param out stream to write to
+	 * @param text text to write
+	 * @throws IOException if the text cannot be written
+	 */
+	private static void writeAscii(OutputStream out, CharSequence text) throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			out.write(text.charAt(i));
+		}
+	}
+
+	/**
+	 * Hashes a password the same way as CourseManager.login(). The default
+	 * password goes through here too, so no password can give a hash that
+	 * breaks the record line it is written in.
+	 * @param password password to hash
+	 * @return digest of the password's bytes
+	 * @throws IllegalArgumentException if the digest contains a comma or
+	 * line terminator byte
+	 */
+	private static byte[] hash(String password) {
+		byte[] hash;
+		try {
+			MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+			digest.update(password.getBytes());
+			hash = digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		for (int i = 0; i < hash.length; i++) {
+			if (hash[i] == DELIMITER || hash[i] == NEWLINE || hash[i] == '\r') {
+				throw new IllegalArgumentException("Password hash contains a delimiter");
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Writes a course file and a student file from the command line:
+	 * courses students courseFile studentFile [seed]
+	 * @param args command line arguments
+	 * @throws IOException if a file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4 || args.length > 5) {
+			System.err.println("Usage: RecordGenerator courses students courseFile studentFile [seed]");
+			System.exit(1);
+		}
+		RecordGenerator generator = new RecordGenerator(args.length == 5 ? Long.parseLong(args[4]) : 0L);
+		generator.setCourseCount(Integer.parseInt(args[0]));
+		generator.setStudentCount(Integer.parseInt(args[1]));
+		generator.writeCourseRecords(args[2]);
+		generator.writeStudentRecords(args[3]);
+	}
+}
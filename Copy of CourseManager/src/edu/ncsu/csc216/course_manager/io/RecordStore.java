@@ -0,0 +1,163 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Storage used by the CourseManager to load and save its courses and
+ * students and to record enrollment changes between saves. Each method
+ * names the file it works on, so one store can serve any number of files.
+ * TextRecordStore keeps the records in the text files read by CourseRecordIO
+ * and StudentRecordIO; other stores keep them in other formats or read them
+ * in other ways.
+ *
+ * Changes are recorded in an EnrollmentLog by default, which any store can
+ * use whatever format its record files are in.
+ * @author Andrew Northrup
+ *
+ */
+public interface RecordStore {
+	/**
+	 * Reads the courses in the given file. A course with a format error is
+	 * ignored.
+	 * @param fileName name of file containing courses
+	 * @return courses in file order
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IOException if the file cannot be read
+	 */
+	List<Course> readCourses(String fileName) throws IOException;
+
+	/**
+	 * Reads the students in the given file and enrolls each one in its
+	 * courses, which must already be in the CourseManager. A student with a
+	 * format error, or a course that doesn't exist or can't be added, is
+	 * ignored.
+	 * @param fileName name of file containing students
+	 * @return students in file order
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IOException if the file cannot be read
+	 */
+	List<Student> readStudents(String fileName) throws IOException;
+
+	/**
+	 * Receives the progress of a read.
+	 */
+	interface ProgressListener {
+		/**
+		 * Called on the reading thread as the file is read.
+		 * @param bytesRead bytes read so far
+		 * @param totalBytes bytes in the whole file
+		 */
+		void bytesRead(long bytesRead, long totalBytes);
+	}
+
+	/**
+	 * Reads the courses in the given file as readCourses() does, telling the
+	 * listener how much of the file has been read. This default reports the
+	 * whole file once it has been read; stores that read the file as a
+	 * stream report every read, and stop with an IOException if the thread is
+	 * interrupted.
+	 * @param fileName name of file containing courses
+	 * @param listener listener told how much has been read
+	 * @return courses in file order
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IOException if the file cannot be read
+	 */
+	default List<Course> readCourses(String fileName, ProgressListener listener) throws IOException {
+		List<Course> courses = readCourses(fileName);
+		long length = new File(fileName).length();
+		listener.bytesRead(length, length);
+		return courses;
+	}
+
+	/**
+	 * Reads the students in the given file as readStudents() does, telling
+	 * the listener how much of the file has been read. This default reports
+	 * the whole file once it has been read; stores that read the file as a
+	 * stream report every read, and stop with an exception if the thread is
+	 * interrupted, leaving no student enrolled in any course.
+	 * @param fileName name of file containing students
+	 * @param listener listener told how much has been read
+	 * @return students in file order
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IOException if the file cannot be read
+	 */
+	default List<Student> readStudents(String fileName, ProgressListener listener) throws IOException {
+		List<Student> students = readStudents(fileName);
+		long length = new File(fileName).length();
+		listener.bytesRead(length, length);
+		return students;
+	}
+
+	/**
+	 * Writes the courses to the given file.
+	 * @param fileName file name to record data
+	 * @param courses list of courses
+	 * @throws IOException if cannot write to file
+	 */
+	void writeCourses(String fileName, List<Course> courses) throws IOException;
+
+	/**
+	 * Writes the students to the given file.
+	 * @param fileName file name to record data
+	 * @param students list of students
+	 * @throws IOException if cannot write to file
+	 */
+	void writeStudents(String fileName, List<Student> students) throws IOException;
+
+	/**
+	 * Writes the students to a temporary file next to the given file, forces
+	 * it to disk and then renames it over the given file. Readers see either
+	 * the old file or the complete new one, even after a crash.
+	 * @param fileName file name to record data
+	 * @param students list of students
+	 * @throws IOException if cannot write to file
+	 */
+	default void replaceStudents(String fileName, List<Student> students) throws IOException {
+		File target = new File(fileName);
+		File temp = new File(fileName + ".tmp");
+		writeStudents(temp.getPath(), students);
+		RandomAccessFile written = new RandomAccessFile(temp, "rw");
+		try {
+			written.getChannel().force(true);
+		} finally {
+			written.close();
+		}
+		Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Passes every change recorded in the given log to the handler in order.
+	 * A missing log has no changes.
+	 * @param fileName log file
+	 * @param handler receives each change
+	 * @return number of changes replayed
+	 * @throws IOException if the log can't be read
+	 */
+	default int replayLog(String fileName, EnrollmentLog.Handler handler) throws IOException {
+		return EnrollmentLog.replay(fileName, handler);
+	}
+
+	/**
+	 * Opens the given log for recording changes, creating it if it doesn't
+	 * exist.
+	 * @param fileName log file
+	 * @return open log
+	 * @throws IOException if the log can't be opened
+	 */
+	default EnrollmentLog openLog(String fileName) throws IOException {
+		return new EnrollmentLog(fileName);
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a single record into comma separated fields without any regular
+ * expression work. Tokens are returned with the same rules as a Scanner using
+ * "," as its delimiter: one delimiter is skipped before each field, two
+ * delimiters in a row give an empty field, and a single trailing delimiter
+ * ends the record. Numbers are parsed directly from the record's characters.
+ * A tokenizer is reset for each record so one instance can be reused for a
+ * whole file.
+ * @author Andrew Northrup
+ *
+ */
+abstract class RecordTokenizer {
+	/** Separator between fields of a record */
+	static final char DELIMITER = ',';
+	/** Position of the next unread character */
+	protected int pos;
+	/** Position just past the last character of the record */
+	protected int end;
+
+	/**
+	 * Returns the character at the given position of the record.
+	 * @param index position to read
+	 * @return character at the position
+	 */
+	protected abstract int charAt(int index);
+
+	/**
+	 * Returns the characters between the two positions as a String.
+	 * @param start first position, inclusive
+	 * @param stop last position, exclusive
+	 * @return characters in the range
+	 */
+	protected abstract String text(int start, int stop);
+
+	/**
+	 * Returns true if the record has another field.
+	 * @return true if next() or nextInt() can be called
+	 */
+	boolean hasNext() {
+		return fieldStart() < end;
+	}
+
+	/**
+	 * Returns the next field of the record.
+	 * @return next field
+	 * @throws NoSuchElementException if the record has no more fields
+	 */
+	String next() {
+		int start = fieldStart();
+		if (start >= end) {
+			throw new NoSuchElementException();
+		}
+		int stop = fieldEnd(start);
+		pos = stop;
+		return text(start, stop);
+	}
+
+	/**
+	 * Returns the next field of the record parsed as an int. An optional sign
+	 * followed by one or more decimal digits is accepted.
+	 * @return next field as an int
+	 * @throws NoSuchElementException if the record has no more fields
+	 * @throws InputMismatchException if the field is not an int
+	 */
+	int nextInt() {
+		int start = fieldStart();
+		if (start >= end) {
+			throw new NoSuchElementException();
+		}
+		int stop = fieldEnd(start);
+		int i = start;
+		boolean negative = false;
+		if (i < stop && (charAt(i) == '-' || charAt(i) == '+')) {
+			negative = charAt(i) == '-';
+			i++;
+		}
+		if (i == stop) {
+			throw new InputMismatchException();
+		}
+		long value = 0;
+		for (; i < stop; i++) {
+			int digit = Character.digit(charAt(i), 10);
+			if (digit < 0) {
+				throw new InputMismatchException();
+			}
+			value = value * 10 + digit;
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				throw new InputMismatchException();
+			}
+		}
+		if (negative) {
+			value = -value;
+		}
+		if (value > Integer.MAX_VALUE) {
+			throw new InputMismatchException();
+		}
+		pos = stop;
+		return (int) value;
+	}
+
+	/**
+	 * Returns the start of the next field, skipping one delimiter.
+	 * @return position of the first character of the next field
+	 */
+	private int fieldStart() {
+		if (pos < end && charAt(pos) == DELIMITER) {
+			return pos + 1;
+		}
+		return pos;
+	}
+
+	/**
+	 * Returns the end of the field starting at the given position.
+	 * @param start first position of the field
+	 * @return position of the delimiter after the field or the record end
+	 */
+	private int fieldEnd(int start) {
+		int i = start;
+		while (i < end && charAt(i) != DELIMITER) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Tokenizer over a record held in a String, such as a line returned by
+	 * BufferedReader.readLine().
+	 */
+	static final class Line extends RecordTokenizer {
+		/** Record being tokenized */
+		private String line;
+
+		/**
+		 * Starts tokenizing the given line.
+		 * @param line record to tokenize
+		 * @return this tokenizer
+		 */
+		Line reset(String line) {
+			this.line = line;
+			this.pos = 0;
+			this.end = line.length();
+			return this;
+		}
+
+		@Override
+		protected int charAt(int index) {
+			return line.charAt(index);
+		}
+
+		@Override
+		protected String text(int start, int stop) {
+			return line.substring(start, stop);
+		}
+	}
+
+	/**
+	 * Tokenizer over a record held in a range of a ByteBuffer, such as a
+	 * memory-mapped file. Delimiters and numbers are read from the bytes
+	 * directly and only fields returned by next() are decoded into Strings,
+	 * so the charset must encode ',' and the digits as single ASCII bytes.
+	 */
+	static final class Bytes extends RecordTokenizer {
+		/** Charset used to decode fields */
+		private final Charset charset;
+		/** Buffer holding the record */
+		private ByteBuffer buffer;
+		/** Scratch array a field is copied into before decoding */
+		private byte[] scratch = new byte[64];
+
+		/**
+		 * Creates a tokenizer that decodes fields with the given charset.
+		 * @param charset charset the records were written with
+		 */
+		Bytes(Charset charset) {
+			this.charset = charset;
+		}
+
+		/**
+		 * Starts tokenizing the record between the given positions of the buffer.
+		 * @param buffer buffer holding the record
+		 * @param start position of the first byte of the record
+		 * @param stop position just past the last byte of the record
+		 * @return this tokenizer
+		 */
+		Bytes reset(ByteBuffer buffer, int start, int stop) {
+			this.buffer = buffer;
+			this.pos = start;
+			this.end = stop;
+			return this;
+		}
+
+		@Override
+		protected int charAt(int index) {
+			return buffer.get(index) & 0xff;
+		}
+
+		@Override
+		protected String text(int start, int stop) {
+			int length = stop - start;
+			if (length > scratch.length) {
+				scratch = new byte[Math.max(length, scratch.length * 2)];
+			}
+			for (int i = 0; i < length; i++) {
+				scratch[i] = buffer.get(start + i);
+			}
+			return new String(scratch, 0, length, charset);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Writes course and student records field by field into a single buffered
+ * writer. The output is the same as printing each record's toString() on its
+ * own line, but no intermediate String is built for a record and numbers are
+ * written digit by digit from a reused buffer.
+ * @author Andrew Northrup
+ *
+ */
+final class RecordWriter implements Closeable {
+	/** Size of the character buffer in front of the underlying writer */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Separator between fields of a record */
+	private static final char DELIMITER = ',';
+	/** Underlying buffered writer */
+	private final BufferedWriter out;
+	/** Line separator written after each record, as PrintWriter.println does */
+	private final String lineSeparator;
+	/** Scratch buffer for writing the digits of an int */
+	private final char[] digits = new char[11];
+
+	/**
+	 * Creates a RecordWriter that writes to the given writer.
+	 * @param out writer to send records to
+	 */
+	RecordWriter(Writer out) {
+		this.out = new BufferedWriter(out, BUFFER_SIZE);
+		this.lineSeparator = System.lineSeparator();
+	}
+
+	/**
+	 * Writes a course as name,credits,capacity followed by a line separator.
+	 * @param c course to write
+	 * @throws IOException if the record cannot be written
+	 */
+	void writeCourse(Course c) throws IOException {
+		out.write(c.getName());
+		out.write(DELIMITER);
+		writeInt(c.getCredits());
+		out.write(DELIMITER);
+		writeInt(c.getCapacity());
+		out.write(lineSeparator);
+	}
+
+	/**
+	 * Writes a student as first,last,id,email,password,maxCredits followed by
+	 * the name of each of the student's courses and a line separator.
+	 * @param s student to write
+	 * @throws IOException if the record cannot be written
+	 */
+	void writeStudent(Student s) throws IOException {
+		out.write(s.getFirstName());
+		out.write(DELIMITER);
+		out.write(s.getLastName());
+		out.write(DELIMITER);
+		out.write(s.getId());
+		out.write(DELIMITER);
+		//The email is kept in parts, so write them rather than join them
+		out.write(s.getEmailLocal());
+		out.write('@');
+		out.write(s.getEmailDomain());
+		out.write(DELIMITER);
+		out.write(s.getPassword());
+		out.write(DELIMITER);
+		writeInt(s.getMaxCredits());
+		Course[] courses = s.getCourses();
+		for (int i = 0; i < courses.length; i++) {
+			out.write(DELIMITER);
+			out.write(courses[i].getName());
+		}
+		out.write(lineSeparator);
+	}
+
+	/**
+	 * Writes the decimal digits of an int without creating a String.
+	 * @param value number to write
+	 * @throws IOException if the number cannot be written
+	 */
+	private void writeInt(int value) throws IOException {
+		if (value == Integer.MIN_VALUE) {
+			out.write(Integer.toString(value));
+			return;
+		}
+		int pos = digits.length;
+		boolean negative = value < 0;
+		int v = negative ? -value : value;
+		do {
+			digits[--pos] = (char) ('0' + v % 10);
+			v /= 10;
+		} while (v != 0);
+		if (negative) {
+			digits[--pos] = '-';
+		}
+		out.write(digits, pos, digits.length - pos);
+	}
+
+	/**
+	 * Flushes any buffered records and closes the underlying writer.
+	 * @throws IOException if the records cannot be flushed
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
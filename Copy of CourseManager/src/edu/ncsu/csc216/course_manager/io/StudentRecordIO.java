@@ -4,15 +4,21 @@
 package edu.ncsu.csc216.course_manager.io;
 
 
-import java.io.FileInputStream;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InterruptedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 
@@ -30,6 +36,10 @@ import edu.ncsu.csc216.course_manager.users.Student;
  *
  */
 public class StudentRecordIO {
+	/** Size of the character buffer used when reading a file */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Smallest number of bytes parsed by one task of the parallel reader */
+	private static final long MIN_PARALLEL_CHUNK_SIZE = 1 << 20;
 	/**
 	 * Reads Student records from the given file.  If the file doesn't exist
 	 * a FileNotFoundException is thrown.  A line with a format error will be
@@ -37,65 +47,321 @@ public class StudentRecordIO {
 	 * @param fileName name of file to read student records out of
 	 * @return Student a student object based on file contents
 	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read
 	 */
 	public static List<Student> readStudentRecords(String fileName) throws FileNotFoundException {
+		return readStudentRecords(new BufferedReader(new FileReader(fileName), BUFFER_SIZE));
+	}
+	/**
+	 * Reads Student records from the given reader and closes it.  A line
+	 * with a format error will be ignored.  If the reader fails part way
+	 * through, the students read so far are dropped from their courses.
+	 * @param fileReader reader positioned at the first record
+	 * @return Student a student object based on file contents
+	 * @throws IllegalArgumentException if the records cannot be read
+	 */
+	static List<Student> readStudentRecords(BufferedReader fileReader) {
 		List<Student> student = new ArrayList<Student>();
-			
-		Scanner fileScanner = new Scanner(new FileInputStream(fileName));
-		while (fileScanner.hasNextLine()) {
+		
+		RecordTokenizer.Line tokenizer = new RecordTokenizer.Line();
+		try {
 			try {
-				student.add(processStudent(fileScanner.nextLine()));
-			} catch (IllegalArgumentException e) {
-				//if the exception is thrown, ignore the Student line.  
+				String line;
+				while ((line = fileReader.readLine()) != null) {
+					try {
+						student.add(processStudent(tokenizer.reset(line)));
+					} catch (IllegalArgumentException e) {
+						//if the exception is thrown, ignore the Student line.  
+					}
+				}
+			} finally {
+				fileReader.close();
 			}
+		} catch (IOException e) {
+			//Don't leave the students read so far on any roster
+			unlinkStudents(student);
+			throw new IllegalArgumentException(e.getMessage());
 		}
-		
-		fileScanner.close();
 		return student;
 	}
 	/**
-	 * Reads a line sent from the file scanner read from the Student file. The
-	 * line scanner reads in the string and uses commas as the delimiter to
-	 * set up the string to be read by the Student constructor. This method also enrolls
-	 * a student in the course if they get a true when calling the canAddCourse method. 
-	 * @param studentLine for the single line read in by the scanner
-	 * @return Student new student is created
-	 * @throws FileNotFoundException if the the elements read in from the line don't match the constructor for student
+	 * Drops each of the given students from all of their courses.
+	 * @param students students to drop
+	 */
+	static void unlinkStudents(List<Student> students) {
+		CourseManager manager = CourseManager.getInstance();
+		for (Student s : students) {
+			Course [] added = s.getCourses();
+			for (int i = 0; i < added.length; i++) {
+				manager.dropStudent(s, added[i]);
+			}
+		}
+	}
+	/**
+	 * Reads Student records from the given file by memory-mapping it. Fields are
+	 * parsed directly from the mapped bytes and only the fields that are kept
+	 * become Strings, which avoids copying a very large file through a stream.
+	 * The result is the same as readStudentRecords(). If the file doesn't exist
+	 * a FileNotFoundException is thrown.  A line with a format error will be
+	 * ignored.
+	 * @param fileName name of file to read student records out of
+	 * @return Student a student object based on file contents
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	public static List<Student> readStudentRecordsMapped(String fileName) throws FileNotFoundException {
+		return readStudentRecordsMapped(new MappedRecordReader(fileName));
+	}
+	/**
+	 * Reads Student records from the given mapped reader. If the reader
+	 * fails part way through, the students read so far are dropped from
+	 * their courses.
+	 * @param reader reader for the student records file
+	 * @return Student a student object based on file contents
+	 * @throws IllegalArgumentException if the file cannot be read
 	 */
-	private static Student processStudent(String studentLine) {
-		Scanner lineScanner = new Scanner(studentLine);
+	static List<Student> readStudentRecordsMapped(MappedRecordReader reader) {
+		final List<Student> student = new ArrayList<Student>();
 		try {
-			lineScanner.useDelimiter(",");
-			String firstname = lineScanner.next();
-			String lastname = lineScanner.next();
-			String id = lineScanner.next();
-			String email = lineScanner.next();
-			String password = lineScanner.next();
-			Student student = new Student(firstname, lastname, id, email, password);
-			student.setMaxCredits(lineScanner.nextInt());
-			//Student is created and max credits are set, not read in while has next for course list of student
-			while(lineScanner.hasNext()){
-				Course c = CourseManager.getInstance().getCourseByName(lineScanner.next());
-				if (c == null){
-					lineScanner.close();
-					throw new IllegalArgumentException();
+			reader.read(new MappedRecordReader.RecordHandler() {
+				@Override
+				public void handle(RecordTokenizer record) {
+					try {
+						student.add(processStudent(record));
+					} catch (IllegalArgumentException e) {
+						//if the exception is thrown, ignore the Student line.  
+					}
 				}
-				if (student.canAddCourse(c)){
-					student.addCourse(c);
-					c.enroll(student);
+			});
+		} catch (IOException e) {
+			//Don't leave the students read so far on any roster
+			unlinkStudents(student);
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		return student;
+	}
+	/**
+	 * Reads Student records from the given file, parsing the file in parallel.
+	 * The file is memory-mapped and split at line boundaries into chunks that
+	 * are parsed on the common ForkJoinPool. Parsing doesn't touch any Course;
+	 * students are enrolled in their courses afterwards by a single pass in file
+	 * order, so the result and every course roster are the same as with
+	 * readStudentRecords(). If the file doesn't exist a FileNotFoundException is
+	 * thrown.  A line with a format error will be ignored.
+	 * @param fileName name of file to read student records out of
+	 * @return Student a student object based on file contents
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	public static List<Student> readStudentRecordsParallel(String fileName) throws FileNotFoundException {
+		return readStudentRecordsParallel(fileName, null);
+	}
+	/**
+	 * Reads Student records from the given file in parallel, as
+	 * readStudentRecordsParallel(String) does. The listener is told about the
+	 * file up to the end of each chunk once its students have been enrolled.
+	 * If the thread is interrupted, the read stops after the chunk it is
+	 * enrolling and no student is left on any roster.
+	 * @param fileName name of file to read student records out of
+	 * @param listener listener told how much has been read, or null
+	 * @return Student a student object based on file contents
+	 * @throws FileNotFoundException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read or the
+	 * thread is interrupted
+	 */
+	public static List<Student> readStudentRecordsParallel(String fileName, RecordStore.ProgressListener listener)
+			throws FileNotFoundException {
+		MappedRecordReader reader = new MappedRecordReader(fileName);
+		try {
+			File file = new File(fileName);
+			long chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE,
+					file.length() / (4L * ForkJoinPool.getCommonPoolParallelism()));
+			return readStudentRecordsParallel(reader, chunkSize, listener);
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				//The records have been read, so there is nothing to do.
+			}
+		}
+	}
+	/**
+	 * Reads Student records from the given mapped reader in chunks of about
+	 * chunkSize bytes. The reader is not closed. If a chunk can't be read,
+	 * the students linked so far are dropped from their courses.
+	 * @param reader reader for the student records file
+	 * @param chunkSize target number of bytes parsed by each task
+	 * @return Student a student object based on file contents
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	static List<Student> readStudentRecordsParallel(MappedRecordReader reader, long chunkSize) {
+		return readStudentRecordsParallel(reader, chunkSize, null);
+	}
+	/**
+	 * Reads Student records from the given mapped reader in chunks of about
+	 * chunkSize bytes, telling the listener about each chunk once it has
+	 * been enrolled. The reader is not closed. If a chunk can't be read or
+	 * the thread is interrupted, the students linked so far are dropped from
+	 * their courses.
+	 * @param reader reader for the student records file
+	 * @param chunkSize target number of bytes parsed by each task
+	 * @param listener listener told how much has been read, or null
+	 * @return Student a student object based on file contents
+	 * @throws IllegalArgumentException if the file cannot be read or the
+	 * thread is interrupted
+	 */
+	static List<Student> readStudentRecordsParallel(final MappedRecordReader reader, long chunkSize,
+			RecordStore.ProgressListener listener) {
+		List<Student> student = new ArrayList<Student>();
+		try {
+			final long[] bounds = reader.chunkBoundaries(chunkSize);
+			List<ForkJoinTask<List<StudentRecord>>> chunks = new ArrayList<ForkJoinTask<List<StudentRecord>>>();
+			for (int i = 0; i + 1 < bounds.length; i++) {
+				final long start = bounds[i];
+				final long stop = bounds[i + 1];
+				chunks.add(ForkJoinPool.commonPool().submit(new Callable<List<StudentRecord>>() {
+					@Override
+					public List<StudentRecord> call() throws IOException {
+						final List<StudentRecord> parsed = new ArrayList<StudentRecord>();
+						reader.readRange(start, stop, new MappedRecordReader.RecordHandler() {
+							@Override
+							public void handle(RecordTokenizer record) {
+								try {
+									parsed.add(parseStudent(record));
+								} catch (IllegalArgumentException e) {
+									//if the exception is thrown, ignore the Student line.  
+								}
+							}
+						});
+						return parsed;
+					}
+				}));
+			}
+			
+			long total = bounds[bounds.length - 1];
+			for (int i = 0; i < chunks.size(); i++) {
+				for (StudentRecord record : chunks.get(i).get()) {
+					try {
+						student.add(linkStudent(record));
+					} catch (IllegalArgumentException e) {
+						//if the exception is thrown, ignore the Student line.  
+					}
 				}
-				else{
-					lineScanner.close();
-					throw new IllegalArgumentException();
+				if (listener != null) {
+					listener.bytesRead(bounds[i + 1], total);
+				}
+				if (Thread.currentThread().isInterrupted()) {
+					throw new InterruptedIOException("Loading was cancelled");
 				}
 			}
-			lineScanner.close();
 			return student;
+		} catch (IOException e) {
+			unlinkStudents(student);
+			throw new IllegalArgumentException(e.getMessage());
+		} catch (ExecutionException e) {
+			//Don't leave the students linked so far on any roster
+			unlinkStudents(student);
+			throw new IllegalArgumentException(e.getCause().getMessage());
+		} catch (InterruptedException e) {
+			unlinkStudents(student);
+			Thread.currentThread().interrupt();
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Reads a line from the Student file and enrolls the student in the
+	 * courses listed on the line.
+	 * @param studentLine tokenizer positioned at the start of the line
+	 * @return Student new student is created
+	 * @throws IllegalArgumentException if the the elements read in from the line don't match the constructor for student
+	 */
+	private static Student processStudent(RecordTokenizer studentLine) {
+		return linkStudent(parseStudent(studentLine));
+	}
+	/**
+	 * Reads the fields of a line from the Student file. The tokenizer splits the
+	 * line on commas to set up the values read by the Student constructor. The
+	 * course names are kept on the record for linkStudent(), so this method
+	 * doesn't use the CourseManager and may run on any thread.
+	 * @param studentLine tokenizer positioned at the start of the line
+	 * @return record holding the new student and the names of its courses
+	 * @throws IllegalArgumentException if the the elements read in from the line don't match the constructor for student
+	 */
+	private static StudentRecord parseStudent(RecordTokenizer studentLine) {
+		try {
+			String firstname = studentLine.next();
+			String lastname = studentLine.next();
+			String id = studentLine.next();
+			String email = studentLine.next();
+			String password = studentLine.next();
+			Student student = new Student(firstname, lastname, id, email, password);
+			student.setMaxCredits(studentLine.nextInt());
+			//Student is created and max credits are set, not read in while has next for course list of student
+			StudentRecord record = new StudentRecord(student);
+			while(studentLine.hasNext()){
+				record.courseNames.add(studentLine.next());
+			}
+			return record;
 		} catch (NoSuchElementException e) {
-			lineScanner.close();
 			throw new IllegalArgumentException();
 		}
 	}
+	/**
+	 * Enrolls the student of a parsed line in each of its courses, in the order
+	 * they are listed.
+	 * @param record parsed line from the Student file
+	 * @return Student the student on the line
+	 * @throws IllegalArgumentException if a course doesn't exist or can't be added
+	 */
+	private static Student linkStudent(StudentRecord record) {
+		CourseManager manager = CourseManager.getInstance();
+		Course [] courses = new Course[record.courseNames.size()];
+		for (int i = 0; i < courses.length; i++) {
+			courses[i] = manager.getCourseByName(record.courseNames.get(i));
+		}
+		return linkStudent(record.student, courses);
+	}
+	/**
+	 * Enrolls a student in each of the given courses, in order, through
+	 * CourseManager.enrollStudent(). If any course can't be added the courses
+	 * already added are dropped again, so a rejected student leaves no trace
+	 * on any roster.
+	 * @param student student read from a file
+	 * @param courses the student's courses, null for a course that doesn't exist
+	 * @return Student the student
+	 * @throws IllegalArgumentException if a course doesn't exist or can't be added
+	 */
+	static Student linkStudent(Student student, Course [] courses) {
+		CourseManager manager = CourseManager.getInstance();
+		for (int i = 0; i < courses.length; i++) {
+			Course c = courses[i];
+			if (c == null || !manager.enrollStudent(student, c)) {
+				Course [] added = student.getCourses();
+				for (int j = 0; j < added.length; j++) {
+					manager.dropStudent(student, added[j]);
+				}
+				throw new IllegalArgumentException();
+			}
+		}
+		return student;
+	}
+	/**
+	 * A parsed line of the Student file whose courses haven't been linked yet.
+	 */
+	private static final class StudentRecord {
+		/** Student created from the line */
+		private final Student student;
+		/** Names of the student's courses, in file order */
+		private final List<String> courseNames = new ArrayList<String>(4);
+
+		/**
+		 * Creates a record for the given student.
+		 * @param student student created from the line
+		 */
+		private StudentRecord(Student student) {
+			this.student = student;
+		}
+	}
 	/**
 	 * Writes the information about the students to the given file.
 	 * @param fileName file name to record data
@@ -103,12 +369,23 @@ public class StudentRecordIO {
 	 * @throws IOException if cannot write to file
 	 */
 	public static void writeStudentRecords(String fileName, List<Student> student) throws IOException {
-		PrintWriter fileOut = new PrintWriter(new FileWriter(fileName));
-		
-		for (Student s: student) {
-			fileOut.println(s.toString());
+		writeStudentRecords(new FileWriter(fileName), student);
+	}
+	/**
+	 * Writes the information about the students to the given writer and
+	 * closes it.
+	 * @param out writer to record data to
+	 * @param student list of students
+	 * @throws IOException if cannot write to the writer
+	 */
+	static void writeStudentRecords(Writer out, List<Student> student) throws IOException {
+		RecordWriter fileOut = new RecordWriter(out);
+		try {
+			for (Student s: student) {
+				fileOut.writeStudent(s);
+			}
+		} finally {
+			fileOut.close();
 		}
-		
-		fileOut.close();
 	}
 }
@@ -0,0 +1,114 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Keeps courses and students in the comma separated text files read and
+ * written by CourseRecordIO and StudentRecordIO. This is the store the
+ * CourseManager uses unless it is given another one.
+ * @author Andrew Northrup
+ *
+ */
+public class TextRecordStore implements RecordStore {
+	/** Size of the character buffer used when reading a file */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Reads the courses with CourseRecordIO.readCourseRecords().
+	 * @param fileName name of file containing courses
+	 * @return courses in file order
+	 * @throws IOException if the file doesn't exist or cannot be read
+	 */
+	@Override
+	public List<Course> readCourses(String fileName) throws IOException {
+		return CourseRecordIO.readCourseRecords(fileName);
+	}
+
+	/**
+	 * Reads the students with StudentRecordIO.readStudentRecords().
+	 * @param fileName name of file containing students
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist or cannot be read
+	 */
+	@Override
+	public List<Student> readStudents(String fileName) throws IOException {
+		return StudentRecordIO.readStudentRecords(fileName);
+	}
+
+	/**
+	 * Reads the courses as CourseRecordIO.readCourseRecords() does, telling
+	 * the listener about every read.
+	 * @param fileName name of file containing courses
+	 * @param listener listener told how much has been read
+	 * @return courses in file order
+	 * @throws IOException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read or the
+	 * thread is interrupted
+	 */
+	@Override
+	public List<Course> readCourses(String fileName, ProgressListener listener) throws IOException {
+		return CourseRecordIO.readCourseRecords(open(fileName, listener));
+	}
+
+	/**
+	 * Reads the students as StudentRecordIO.readStudentRecords() does,
+	 * telling the listener about every read.
+	 * @param fileName name of file containing students
+	 * @param listener listener told how much has been read
+	 * @return students in file order
+	 * @throws IOException if the file doesn't exist
+	 * @throws IllegalArgumentException if the file cannot be read or the
+	 * thread is interrupted
+	 */
+	@Override
+	public List<Student> readStudents(String fileName, ProgressListener listener) throws IOException {
+		return StudentRecordIO.readStudentRecords(open(fileName, listener));
+	}
+
+	/**
+	 * Opens a text file for reading with progress.
+	 * @param fileName file to read
+	 * @param listener listener told about every read
+	 * @return reader of the file
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	private static BufferedReader open(String fileName, ProgressListener listener) throws FileNotFoundException {
+		File file = new File(fileName);
+		return new BufferedReader(new InputStreamReader(
+				new ProgressInputStream(new FileInputStream(file), file.length(), listener)), BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes the courses with CourseRecordIO.writeCourseRecords().
+	 * @param fileName file name to record data
+	 * @param courses list of courses
+	 * @throws IOException if cannot write to file
+	 */
+	@Override
+	public void writeCourses(String fileName, List<Course> courses) throws IOException {
+		CourseRecordIO.writeCourseRecords(fileName, courses);
+	}
+
+	/**
+	 * Writes the students with StudentRecordIO.writeStudentRecords().
+	 * @param fileName file name to record data
+	 * @param students list of students
+	 * @throws IOException if cannot write to file
+	 */
+	@Override
+	public void writeStudents(String fileName, List<Student> students) throws IOException {
+		StudentRecordIO.writeStudentRecords(fileName, students);
+	}
+}
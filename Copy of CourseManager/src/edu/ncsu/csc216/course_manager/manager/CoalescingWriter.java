@@ -0,0 +1,71 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a write on a background executor, folding together requests that
+ * arrive before it starts. While a write is running, every new request
+ * shares the one write queued after it, so a burst of saves costs at most
+ * two writes. Each request's future completes once a write that started
+ * after the request has finished.
+ * @author Andrew Northrup
+ *
+ */
+final class CoalescingWriter {
+	/** Executor the write runs on */
+	private final Executor executor;
+	/** Write to run */
+	private final Runnable write;
+	/** Future for the queued write that hasn't started, or null */
+	private CompletableFuture<Void> pending;
+
+	/**
+	 * Creates a writer that runs the write on the given executor.
+	 * @param executor executor for the write, normally a single thread
+	 * @param write write to run
+	 */
+	CoalescingWriter(Executor executor, Runnable write) {
+		this.executor = executor;
+		this.write = write;
+	}
+
+	/**
+	 * Asks for a write. If one is already queued and hasn't started, the
+	 * request joins it.
+	 * @return future completed when the write finishes, or completed
+	 * exceptionally if it fails
+	 */
+	synchronized CompletableFuture<Void> request() {
+		if (pending == null) {
+			pending = new CompletableFuture<Void>();
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					runPending();
+				}
+			});
+		}
+		return pending;
+	}
+
+	/**
+	 * Runs the queued write. Requests made from now on queue a new write.
+	 */
+	private void runPending() {
+		CompletableFuture<Void> current;
+		synchronized (this) {
+			current = pending;
+			pending = null;
+		}
+		try {
+			write.run();
+			current.complete(null);
+		} catch (RuntimeException e) {
+			current.completeExceptionally(e);
+		}
+	}
+}
@@ -3,22 +3,32 @@
  */
 package edu.ncsu.csc216.course_manager.manager;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import edu.ncsu.csc216.course_manager.courses.Course;
-import edu.ncsu.csc216.course_manager.io.CourseRecordIO;
-import edu.ncsu.csc216.course_manager.io.StudentRecordIO;
+import edu.ncsu.csc216.course_manager.io.EnrollmentLog;
+import edu.ncsu.csc216.course_manager.io.LazyStudentRecords;
+import edu.ncsu.csc216.course_manager.io.RecordStore;
+import edu.ncsu.csc216.course_manager.io.TextRecordStore;
 import edu.ncsu.csc216.course_manager.users.Student;
 import edu.ncsu.csc216.course_manager.users.User;
 
 /**
  * Creates list of students and courses and allows users to log in and modify the
- * courses. Only one user may be logged in at once. Reads the current users classes
+ * courses. Any number of users may be logged in at once through sessions, and the
+ * manager may be called from many threads. The older methods without a session
+ * work on a single current user. Reads the current users classes
  * and writes back any changes to that students class changes or the list of students to the 
  * appropriate file.
  * @author Andrew Northrup
@@ -27,18 +37,46 @@ import edu.ncsu.csc216.course_manager.users.User;
 public class CourseManager {
 	/** CourseManager singleton instance */
 	private static CourseManager manager;
-	/** List of all Courses in the system */
-	private ArrayList<Course> courses;
-	/** List of all Students in the system */
-	private ArrayList<Student> students;
-	/** Currently logged in User */
-	private User currentUser;
+	/** List of all Courses in the system, guarded by this manager */
+	private final ArrayList<Course> courses;
+	/** Read-only copy of courses, replaced whenever the courses change */
+	private volatile List<Course> catalog;
+	/** All Courses in the system keyed by their case-folded name */
+	private final ConcurrentHashMap<String, Course> courseIndex;
+	/** List of all Students in the system, guarded by this manager */
+	private final ArrayList<Student> students;
+	/** All Students in the system keyed by id */
+	private final ConcurrentHashMap<String, Student> studentIndex;
+	/** Sessions that are logged in */
+	private final Set<Session> sessions;
+	/** Locks for each course and student, held while enrollments change */
+	private final LockStripes stripes;
+	/** Session of the current user for the methods without a session */
+	private volatile Session currentSession;
+	/** Background writer for the course file */
+	private final CoalescingWriter courseWriter;
+	/** Background writer for the student file */
+	private final CoalescingWriter studentWriter;
+	/** Background writer for checkpoints */
+	private final CoalescingWriter checkpointWriter;
+	/** Log of enrollment changes since the last checkpoint, or null */
+	private volatile EnrollmentLog log;
+	/** Log position covered by the last checkpoint */
+	private volatile long checkpointPosition;
+	/** Bytes of log after which a checkpoint is started in the background */
+	private volatile long checkpointInterval;
+	/** Default bytes of log between checkpoints */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 16 << 20;
+	/** Students of the student file not yet created, or null */
+	private volatile LazyStudentRecords lazyStudents;
+	/** Creates the waiting students of a course when its roster is read */
+	private final Course.RosterLoader rosterLoader;
+	/** Storage the records are loaded from and saved to */
+	private volatile RecordStore store;
 	/** Course records file name */
 	private String courseFileName;
 	/** Student records file name */
 	private String studentFileName;
-	/** Hashing algorithm */
-	private static final String HASH_ALGORITHM = "SHA-256";
 	/**
 	 * Constructor for CourseManager.  It's private so that it can
 	 * only be created inside of CourseManager and we can ensure
@@ -47,14 +85,54 @@ public class CourseManager {
 	 */
 	private CourseManager() {
 		courses = new ArrayList<Course>();
+		catalog = Collections.emptyList();
+		courseIndex = new ConcurrentHashMap<String, Course>();
 		students = new ArrayList<Student>();
+		studentIndex = new ConcurrentHashMap<String, Student>();
+		sessions = ConcurrentHashMap.<Session>newKeySet();
+		stripes = new LockStripes(LockStripes.DEFAULT_STRIPES);
+		//One daemon thread runs every background save, one at a time
+		ExecutorService saver = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "CourseManager saver");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		courseWriter = new CoalescingWriter(saver, new Runnable() {
+			@Override
+			public void run() {
+				writeCourseSnapshot();
+			}
+		});
+		studentWriter = new CoalescingWriter(saver, new Runnable() {
+			@Override
+			public void run() {
+				writeStudentSnapshot();
+			}
+		});
+		checkpointWriter = new CoalescingWriter(saver, new Runnable() {
+			@Override
+			public void run() {
+				checkpoint();
+			}
+		});
+		checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+		store = new TextRecordStore();
+		rosterLoader = new Course.RosterLoader() {
+			@Override
+			public void loadRoster(Course course) {
+				loadWaitingStudents(course);
+			}
+		};
 	}	
 	/**
 	 * Returns the singleton instance of CourseManager.  If the instance 
 	 * doesn't exist, it will be created.
 	 * @return singleton instance
 	 */
-	public static CourseManager getInstance() {
+	public static synchronized CourseManager getInstance() {
 		if (manager == null) {
 			manager = new CourseManager();
 		}
@@ -66,33 +144,57 @@ public class CourseManager {
 	 * @param password user's password
 	 * @return true if user is logged in
 	 */
-	public boolean login(String id, String password) {
-		if (currentUser != null) {
+	public synchronized boolean login(String id, String password) {
+		if (currentSession != null) {
 			return false;
 		}
-		for (Student s: students) {
-			if (s.getId().equals(id)) {
-				try {
-					MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-					digest.update(password.getBytes());
-					String hashPW = new String(digest.digest());
-					if (s.getPassword().equals(hashPW)) {
-						currentUser = s;
-						return true;
-					}
-					return false;
-				} catch (NoSuchAlgorithmException e) {
-					throw new IllegalArgumentException();
-				}	
-			}
+		Session session = loginSession(id, password);
+		if (session == null) {
+			return false;
+		}
+		currentSession = session;
+		return true;
+	}
+	/**
+	 * Logs a user in to a new session. The user may already have other
+	 * sessions open.
+	 * @param id user's id
+	 * @param password user's password
+	 * @return the new session, or null if the id or password is wrong
+	 */
+	public Session loginSession(String id, String password) {
+		if (id == null || password == null) {
+			return null;
+		}
+		Student s = findStudent(id);
+		if (s == null) {
+			return null;
 		}
-		return false;
+		if (PasswordHasher.matches(s, password)) {
+			Session session = new Session(s);
+			sessions.add(session);
+			return session;
+		}
+		return null;
 	}
 	/**
 	 * Log current user out of the system.
 	 */
-	public void logout() {
-		currentUser = null;
+	public synchronized void logout() {
+		if (currentSession != null) {
+			logout(currentSession);
+			currentSession = null;
+		}
+	}
+	/**
+	 * Logs the given session out. The session can't be used afterwards.
+	 * @param session session to log out
+	 */
+	public void logout(Session session) {
+		if (session != null) {
+			session.end();
+			sessions.remove(session);
+		}
 	}
 	/**
 	 * Returns the current logged in user or null if there is 
@@ -100,17 +202,23 @@ public class CourseManager {
 	 * @return logged in user
 	 */
 	public User getCurrentUser() {
-		return currentUser;
+		Session session = currentSession;
+		return session == null ? null : session.getUser();
 	}
 	/**
 	 * Returns a list of all Courses associated with the current User.
 	 * @return list of User's courses
 	 */
 	public Course[] listUserCourses() {
-		if (currentUser == null) {
-			throw new IllegalArgumentException("User is not logged in.");
-		}
-		return currentUser.getCourses();
+		return listUserCourses(currentSession);
+	}
+	/**
+	 * Returns a list of all Courses associated with the session's User.
+	 * @param session logged in session
+	 * @return list of User's courses
+	 */
+	public Course[] listUserCourses(Session session) {
+		return checkSession(session).getCourses();
 	}
 
 	/**
@@ -118,8 +226,25 @@ public class CourseManager {
 	 * @return list of all Courses
 	 */
 	public Course[] listAllCourses() {
-		Course [] allCourses = new Course[courses.size()];
-		return courses.toArray(allCourses);
+		List<Course> snapshot = catalog;
+		return snapshot.toArray(new Course[snapshot.size()]);
+	}
+	/**
+	 * Returns a read-only list of all Courses in the system as of the last
+	 * change to the courses. The same list is returned until a course is
+	 * added or the data is cleared, so callers can tell whether the catalog
+	 * changed by comparing references.
+	 * @return unmodifiable list of all Courses
+	 */
+	public List<Course> getCatalog() {
+		return catalog;
+	}
+	/**
+	 * Publishes a new read-only copy of the courses. Must be called while
+	 * holding this manager's lock.
+	 */
+	private void publishCatalog() {
+		catalog = Collections.unmodifiableList(Arrays.asList(courses.toArray(new Course[courses.size()])));
 	}
 	/**
 	 * Returns true if the Course is added to the current User's
@@ -128,18 +253,17 @@ public class CourseManager {
 	 * @return true if added to the User
 	 */
 	public boolean addUserToCourse(Course course) {
-		if (currentUser == null) {
-			throw new IllegalArgumentException("User is not logged in.");
-		}
-		if (currentUser.canAddCourse(course) && currentUser instanceof Student) {
-			Student s = (Student)currentUser;
-			if (course.canEnroll(s)) {
-				currentUser.addCourse(course);
-				course.enroll(s);
-				return true;
-			}
-		}
-		return false;
+		return addUserToCourse(currentSession, course);
+	}
+	/**
+	 * Returns true if the Course is added to the session User's
+	 * list of courses.
+	 * @param session logged in session
+	 * @param course Course to add
+	 * @return true if added to the User
+	 */
+	public boolean addUserToCourse(Session session, Course course) {
+		return enroll(checkSession(session), course, log);
 	}
 	/**
 	 * Returns true if the Course is removed from the current User's
@@ -148,20 +272,300 @@ public class CourseManager {
 	 * @return true if removed from the User
 	 */
 	public boolean removeUserFromCourse(Course course) {
-		if (currentUser == null) {
+		return removeUserFromCourse(currentSession, course);
+	}
+	/**
+	 * Returns true if the Course is removed from the session User's
+	 * list of courses.
+	 * @param session logged in session
+	 * @param course Course to remove
+	 * @return true if removed from the User
+	 */
+	public boolean removeUserFromCourse(Session session, Course course) {
+		return drop(checkSession(session), course, log);
+	}
+	/**
+	 * Enrolls a student in a course, adding the course to the student and the
+	 * student to the course's roster as one step. Either both sides change or
+	 * neither does. The seat is claimed before any lock is taken, so a full
+	 * course turns the student away at once; the checks and both changes
+	 * then happen under the course's and the student's locks.
+	 * @param user student to enroll
+	 * @param course course to enroll in
+	 * @return true if the student was enrolled
+	 */
+	public boolean enrollStudent(User user, Course course) {
+		return enroll(user, course, null);
+	}
+	/**
+	 * Drops a student from a course, removing the course from the student
+	 * and the student from the course's roster as one step.
+	 * @param user student to drop
+	 * @param course course to drop
+	 * @return true if the course was removed from the student
+	 */
+	public boolean dropStudent(User user, Course course) {
+		return drop(user, course, null);
+	}
+	/**
+	 * Enrolls a student in a course as described by enrollStudent(), and
+	 * records the change in the given log. If the change can't be logged it
+	 * is undone before the exception is thrown.
+	 * @param user student to enroll
+	 * @param course course to enroll in
+	 * @param changes log for the change, or null to not log it
+	 * @return true if the student was enrolled
+	 */
+	private boolean enroll(User user, Course course, EnrollmentLog changes) {
+		if (!(user instanceof Student) || !course.reserveSeat()) {
+			return false;
+		}
+		String courseKey = courseKey(course.getName());
+		boolean added = false;
+		long entry = 0;
+		stripes.lock(courseKey, user.getId());
+		boolean reserved = true;
+		try {
+			if (user.canAddCourse(course)) {
+				//commitSeat gives the seat back itself if it fails
+				reserved = false;
+				if (course.commitSeat(user)) {
+					try {
+						added = user.addCourse(course);
+					} finally {
+						if (!added) {
+							course.drop(user);
+						}
+					}
+				}
+			}
+			//Logged under the locks so changes to one student and course are
+			//logged in the order they happened
+			if (added && changes != null) {
+				entry = changes.append(EnrollmentLog.ADD, user.getId(), course.getName());
+			}
+		} finally {
+			if (reserved) {
+				course.releaseSeat();
+			}
+			stripes.unlock(courseKey, user.getId());
+		}
+		if (entry > 0) {
+			try {
+				syncLog(changes, entry);
+			} catch (IllegalArgumentException e) {
+				//The entry will never be written, so the add mustn't stay
+				drop(user, course, null);
+				throw e;
+			}
+		}
+		return added;
+	}
+	/**
+	 * Drops a student from a course as described by dropStudent(), and
+	 * records the change in the given log. If the change can't be logged the
+	 * student is enrolled again, if the seat is still free, before the
+	 * exception is thrown.
+	 * @param user student to drop
+	 * @param course course to drop
+	 * @param changes log for the change, or null to not log it
+	 * @return true if the course was removed from the student
+	 */
+	private boolean drop(User user, Course course, EnrollmentLog changes) {
+		String courseKey = courseKey(course.getName());
+		boolean removed;
+		long entry = 0;
+		stripes.lock(courseKey, user.getId());
+		try {
+			course.drop(user);
+			removed = user.removeCourse(course);
+			if (removed && changes != null) {
+				entry = changes.append(EnrollmentLog.DROP, user.getId(), course.getName());
+			}
+		} finally {
+			stripes.unlock(courseKey, user.getId());
+		}
+		if (entry > 0) {
+			try {
+				syncLog(changes, entry);
+			} catch (IllegalArgumentException e) {
+				//The entry will never be written, so put the student back if
+				//the seat is still free
+				enroll(user, course, null);
+				throw e;
+			}
+		}
+		return removed;
+	}
+	/**
+	 * Waits for a log entry to reach the disk, sharing the flush with other
+	 * threads, and starts a background checkpoint once the log has grown by
+	 * the checkpoint interval.
+	 * @param changes log the entry was appended to
+	 * @param entry position returned by append()
+	 * @throws IllegalArgumentException if the entry can't be written, which
+	 * fails the log so no later change is accepted until openLog() is called
+	 * again
+	 */
+	private void syncLog(EnrollmentLog changes, long entry) {
+		try {
+			changes.sync(entry);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Enrollment could not be logged: " + e.getMessage());
+		}
+		if (entry - checkpointPosition >= checkpointInterval) {
+			checkpointWriter.request();
+		}
+	}
+	/**
+	 * Replays the given enrollment log on top of the loaded students and
+	 * then logs every add and drop made through a session to it. Each
+	 * change is on disk before addUserToCourse() or removeUserFromCourse()
+	 * returns, so saving the student file is only needed at checkpoints.
+	 * Load the course and student files, which hold the last checkpoint,
+	 * before opening the log.
+	 * @param fileName log file, created if it doesn't exist
+	 */
+	public synchronized void openLog(String fileName) {
+		closeLog();
+		try {
+			stripes.lockAll();
+			try {
+				store.replayLog(fileName, new EnrollmentLog.Handler() {
+					@Override
+					public void handle(char op, String id, String courseName) {
+						//Entries before the checkpoint's mark are in the
+						//file, and the rest replay in order on top of it
+						Student s = findStudent(id);
+						Course c = getCourseByName(courseName);
+						if (s == null || c == null) {
+							return;
+						}
+						if (op == EnrollmentLog.ADD) {
+							enroll(s, c, null);
+						} else {
+							drop(s, c, null);
+						}
+					}
+				});
+			} finally {
+				stripes.unlockAll();
+			}
+			log = store.openLog(fileName);
+			checkpointPosition = 0;
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Closes the enrollment log, if one is open. Changes are no longer
+	 * logged afterwards.
+	 */
+	public synchronized void closeLog() {
+		EnrollmentLog changes = log;
+		log = null;
+		if (changes != null) {
+			try {
+				changes.close();
+			} catch (IOException e) {
+				throw new IllegalArgumentException(e.getMessage());
+			}
+		}
+	}
+	/**
+	 * Sets how many bytes the log may grow by before a checkpoint is started
+	 * in the background.
+	 * @param bytes bytes of log between checkpoints
+	 */
+	public void setCheckpointInterval(long bytes) {
+		if (bytes < 1) {
+			throw new IllegalArgumentException();
+		}
+		checkpointInterval = bytes;
+	}
+	/**
+	 * Rewrites the student file and discards the log entries it covers. The
+	 * new file replaces the old one only once it is on disk, so a crash
+	 * leaves the old checkpoint and the whole log. The students are copied
+	 * and the log position is taken while registration is briefly blocked,
+	 * so the file holds exactly the changes logged before that position.
+	 * Registration isn't blocked while the file is written. Without an open
+	 * log this only saves the students.
+	 */
+	public synchronized void checkpoint() {
+		loadAllStudents();
+		EnrollmentLog changes = log;
+		try {
+			long mark;
+			List<Student> snapshot;
+			//Changes are logged under the enrollment locks, so with all of
+			//them held the copies show every change before the mark and none
+			//after it
+			stripes.lockAll();
+			try {
+				mark = changes == null ? 0 : changes.position();
+				snapshot = copyStudents();
+			} finally {
+				stripes.unlockAll();
+			}
+			store.replaceStudents(studentFileName, snapshot);
+			if (changes != null) {
+				changes.truncate(mark);
+				checkpointPosition = mark;
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Returns the user of the given session if it is still logged in.
+	 * @param session session to check
+	 * @return the session's user
+	 * @throws IllegalArgumentException if the session is null or logged out
+	 */
+	private static User checkSession(Session session) {
+		if (session == null || !session.isActive()) {
 			throw new IllegalArgumentException("User is not logged in.");
 		}
-		course.drop(currentUser);
-		return currentUser.removeCourse(course);
+		return session.getUser();
+	}
+	/**
+	 * Sets the storage used by every later load, save, checkpoint and
+	 * enrollment log. The records already loaded are kept, so saving after
+	 * changing the store writes the files in the new store's format. The
+	 * store is kept when the data is cleared.
+	 * @param store storage for the records
+	 */
+	public synchronized void setRecordStore(RecordStore store) {
+		if (store == null) {
+			throw new IllegalArgumentException();
+		}
+		this.store = store;
+	}
+	/**
+	 * Returns the storage the records are loaded from and saved to.
+	 * @return storage for the records
+	 */
+	public RecordStore getRecordStore() {
+		return store;
 	}
 	/**
 	 * Clears all course and student data from the Course manager 
 	 * without saving.
 	 */
-	public void clearData() {
-		courses = new ArrayList<Course>();
-		students = new ArrayList<Student>();
-		currentUser = null;
+	public synchronized void clearData() {
+		for (Session session : sessions) {
+			session.end();
+		}
+		sessions.clear();
+		currentSession = null;
+		closeLog();
+		courses.clear();
+		catalog = Collections.emptyList();
+		courseIndex.clear();
+		students.clear();
+		studentIndex.clear();
+		lazyStudents = null;
 		courseFileName = null;
 		studentFileName = null;
 	}
@@ -169,36 +573,92 @@ public class CourseManager {
 	 * Loads the list of Courses from the given file.
 	 * @param fileName name of file containing courses
 	 */
-	public void loadCourses(String fileName) {
+	public synchronized void loadCourses(String fileName) {
+		loadCourses(fileName, null);
+	}
+	/**
+	 * Loads the list of Courses from the given file, telling the listener how
+	 * much of the file has been read. The courses are only added once the
+	 * whole file has been read, so a load that fails or is cancelled by
+	 * interrupting the thread adds none of them.
+	 * @param fileName name of file containing courses
+	 * @param listener listener told how much has been read, or null
+	 * @throws IllegalArgumentException if the file can't be read or the
+	 * thread is interrupted while the record store reads it
+	 */
+	public synchronized void loadCourses(String fileName, RecordStore.ProgressListener listener) {
 		this.courseFileName = fileName;
 		try {
-			List<Course> coursesFromFile = CourseRecordIO.readCourseRecords(courseFileName);
+			List<Course> coursesFromFile = listener == null ? store.readCourses(courseFileName)
+					: store.readCourses(courseFileName, listener);
+			boolean added = false;
 			for (Course c : coursesFromFile) {
-				addCourse(c);
+				added |= addToCourses(c);
+			}
+			//Publish the whole file at once rather than once per course
+			if (added) {
+				publishCatalog();
 			}
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
 			throw new IllegalArgumentException(e.getMessage());
 		}
 	}
 
 	/**
-	 * Adds a course to the list of courses. 
+	 * Adds a course to the list of courses. A course whose name matches an
+	 * existing course, ignoring case, is not added.
 	 * @param course Course to add
 	 */
-	public void addCourse(Course course) {
-		for (Course c: courses) {
-			if (c.equals(course)) {
-				return;
-			}
+	public synchronized void addCourse(Course course) {
+		if (addToCourses(course)) {
+			publishCatalog();
+		}
+	}
+	/**
+	 * Adds a course to the list and index without publishing the catalog.
+	 * Must be called while holding this manager's lock.
+	 * @param course Course to add
+	 * @return true if the course was added
+	 */
+	private boolean addToCourses(Course course) {
+		if (courseIndex.putIfAbsent(courseKey(course.getName()), course) != null) {
+			return false;
 		}
 		courses.add(course);
+		return true;
 	}
 	/**
 	 * Writes the list of Courses to the courseFileName.
 	 */
-	public void saveCourses() {
+	public synchronized void saveCourses() {
 		try {
-			CourseRecordIO.writeCourseRecords(courseFileName, courses);
+			store.writeCourses(courseFileName, courses);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Writes the list of Courses to the courseFileName on a background
+	 * thread. Saves asked for while a save is waiting to start share it.
+	 * Wait on the returned future to know the file has been written; the
+	 * background thread doesn't keep the program running.
+	 * @return future completed when the file is written, or completed
+	 * exceptionally with an IllegalArgumentException if it can't be
+	 */
+	public CompletableFuture<Void> saveCoursesAsync() {
+		return courseWriter.request();
+	}
+	/**
+	 * Writes the published catalog to the course file. Takes no lock while
+	 * writing.
+	 */
+	private void writeCourseSnapshot() {
+		String fileName;
+		synchronized (this) {
+			fileName = courseFileName;
+		}
+		try {
+			store.writeCourses(fileName, catalog);
 		} catch (IOException e) {
 			throw new IllegalArgumentException(e.getMessage());
 		}
@@ -210,49 +670,218 @@ public class CourseManager {
 	 * @param courseName name of course passed in to method
 	 * @return Course based on name
 	 */
-	public Course getCourseByName(String courseName) {		
-		for(Course c:courses){
-			if(c.getName().equalsIgnoreCase(courseName)){
-				return c;
-			}
+	public Course getCourseByName(String courseName) {
+		if (courseName == null) {
+			return null;
 		}
-		return null;		
+		return courseIndex.get(courseKey(courseName));
+	}
+	/**
+	 * Returns the key a course name is stored under in the course index.
+	 * Names are case-folded so that lookups ignore case.
+	 * @param courseName name of the course
+	 * @return case-insensitive key for the name
+	 */
+	private static String courseKey(String courseName) {
+		return courseName.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
 	}
 	/**
 	 * Loads the list of Students from the given file.
 	 * @param fileName name of file containing students
 	 */
-	public void loadStudents(String fileName) {
+	public synchronized void loadStudents(String fileName) {
+		loadStudents(fileName, null);
+	}
+	/**
+	 * Loads the list of Students from the given file, telling the listener
+	 * how much of the file has been read. A load that fails or is cancelled
+	 * by interrupting the thread leaves no new student on any roster.
+	 * @param fileName name of file containing students
+	 * @param listener listener told how much has been read, or null
+	 * @throws IllegalArgumentException if the file can't be read or the
+	 * thread is interrupted while the record store reads it
+	 */
+	public synchronized void loadStudents(String fileName, RecordStore.ProgressListener listener) {
+		loadAllStudents();
 		this.studentFileName = fileName;
 		try {
-			List<Student> studentsFromFile = StudentRecordIO.readStudentRecords(studentFileName);
+			List<Student> studentsFromFile;
+			//Reading enrolls each student in their courses
+			stripes.lockAll();
+			try {
+				studentsFromFile = listener == null ? store.readStudents(studentFileName)
+						: store.readStudents(studentFileName, listener);
+			} finally {
+				stripes.unlockAll();
+			}
 			for (Student s : studentsFromFile) {
 				addStudent(s);
 			}
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Indexes the students in the given file without creating them. Each
+	 * student is created the first time they log in, or when the roster of
+	 * one of their courses is read, so startup time and memory grow with the
+	 * students who are active rather than with the whole file. Every student
+	 * still holds their seats from the start. Saving or checkpointing the
+	 * students creates all of them first. The file must be in the text
+	 * format.
+	 * @param fileName name of file containing students
+	 * @throws IllegalArgumentException if the file can't be read or the
+	 * record store doesn't use text files
+	 */
+	public synchronized void loadStudentsLazily(String fileName) {
+		if (!(store instanceof TextRecordStore)) {
+			throw new IllegalArgumentException("Students can only be loaded on demand from text files");
+		}
+		loadAllStudents();
+		this.studentFileName = fileName;
+		LazyStudentRecords lazy;
+		try {
+			//Indexing claims the seats of each student
+			stripes.lockAll();
+			try {
+				lazy = new LazyStudentRecords(fileName);
+			} finally {
+				stripes.unlockAll();
+			}
+		} catch (IOException e) {
 			throw new IllegalArgumentException(e.getMessage());
 		}
+		lazyStudents = lazy;
+		for (Course c : lazy.getWaitingCourses()) {
+			c.setRosterLoader(rosterLoader);
+		}
+	}
+	/**
+	 * Returns the student with the given id, creating them from the student
+	 * file if they haven't been yet.
+	 * @param id student id
+	 * @return the student, or null if there is none with the id
+	 */
+	private Student findStudent(String id) {
+		Student s = studentIndex.get(id);
+		if (s == null && lazyStudents != null) {
+			synchronized (this) {
+				s = studentIndex.get(id);
+				if (s == null && lazyStudents != null) {
+					s = lazyStudents.hydrate(id);
+					if (s != null) {
+						addStudent(s);
+					}
+				}
+			}
+		}
+		return s;
+	}
+	/**
+	 * Creates the students waiting for a course. Called by the course before
+	 * its roster is read.
+	 * @param course course whose roster is being read
+	 */
+	private synchronized void loadWaitingStudents(Course course) {
+		if (lazyStudents != null) {
+			for (Student s : lazyStudents.hydrate(course)) {
+				addStudent(s);
+			}
+		}
+		//Cleared last, so a reader that finds no loader sees the full roster
+		course.setRosterLoader(null);
+	}
+	/**
+	 * Creates every student not yet created from the student file. Must be
+	 * called while holding this manager's lock.
+	 */
+	private void loadAllStudents() {
+		LazyStudentRecords lazy = lazyStudents;
+		if (lazy == null) {
+			return;
+		}
+		List<Course> waiting = lazy.getWaitingCourses();
+		for (Student s : lazy.hydrateAll()) {
+			addStudent(s);
+		}
+		for (Course c : waiting) {
+			c.setRosterLoader(null);
+		}
+		lazyStudents = null;
 	}
 	/**
 	 * Adds a student to the list of students. 
 	 * @param student Student to add
 	 */
 	private void addStudent(Student student) {
-		for (Student s: students) {
-			if (s.getId().equals (student.getId())) {
-				return;
-			}
+		if (studentIndex.putIfAbsent(student.getId(), student) != null) {
+			return;
 		}
 		students.add(student);
 	}
 	/**
 	 * Writes the list of Students to the studentFileName.
 	 */
-	public void saveStudents() {
+	public synchronized void saveStudents() {
+		loadAllStudents();
 		try {
-			StudentRecordIO.writeStudentRecords(studentFileName, students);
+			//Every stripe is held so the file shows one consistent moment
+			stripes.lockAll();
+			try {
+				store.writeStudents(studentFileName, students);
+			} finally {
+				stripes.unlockAll();
+			}
 		} catch (IOException e) {
 			throw new IllegalArgumentException(e.getMessage());
 		}
 	}
-}
\ No newline at end of file
+	/**
+	 * Writes the list of Students to the studentFileName on a background
+	 * thread. Saves asked for while a save is waiting to start share it.
+	 * The file shows one consistent moment, as with saveStudents(): every
+	 * student is copied while registration is briefly blocked, and
+	 * registration goes on while the copies are written.
+	 * @return future completed when the file is written, or completed
+	 * exceptionally with an IllegalArgumentException if it can't be
+	 */
+	public CompletableFuture<Void> saveStudentsAsync() {
+		return studentWriter.request();
+	}
+	/**
+	 * Writes a copy of every student to the student file. Only the copy
+	 * is made under this manager's lock and the enrollment locks.
+	 */
+	private void writeStudentSnapshot() {
+		String fileName;
+		List<Student> snapshot;
+		synchronized (this) {
+			loadAllStudents();
+			fileName = studentFileName;
+			stripes.lockAll();
+			try {
+				snapshot = copyStudents();
+			} finally {
+				stripes.unlockAll();
+			}
+		}
+		try {
+			store.writeStudents(fileName, snapshot);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+	/**
+	 * Copies every student with the courses they have now. Must be called
+	 * while holding this manager's lock and every enrollment lock, so no
+	 * student is copied partway through an add or drop.
+	 * @return copies of the students, in order
+	 */
+	private List<Student> copyStudents() {
+		List<Student> copies = new ArrayList<Student>(students.size());
+		for (int i = 0; i < students.size(); i++) {
+			copies.add(new Student(students.get(i)));
+		}
+		return copies;
+	}
+}
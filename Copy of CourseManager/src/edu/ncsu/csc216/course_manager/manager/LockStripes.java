@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared out by key. A course name or student id always
+ * maps to the same lock, so changes to different courses and students can run
+ * at the same time while changes to the same one wait for each other. Locks
+ * are always taken in ascending stripe order, so two threads locking the same
+ * pair of keys can't deadlock.
+ * @author Andrew Northrup
+ *
+ */
+final class LockStripes {
+	/** Default number of stripes */
+	static final int DEFAULT_STRIPES = 64;
+	/** Locks, one per stripe */
+	private final ReentrantLock[] locks;
+
+	/**
+	 * Creates the given number of stripes, rounded up to a power of two.
+	 * @param stripes number of stripes
+	 */
+	LockStripes(int stripes) {
+		if (stripes < 1 || stripes > 1 << 16) {
+			throw new IllegalArgumentException();
+		}
+		int size = Integer.highestOneBit(stripes);
+		if (size < stripes) {
+			size <<= 1;
+		}
+		locks = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Returns the stripe for a key.
+	 * @param key course name or student id
+	 * @return stripe index
+	 */
+	int stripe(String key) {
+		int h = key.hashCode();
+		//Spread the high bits down, as HashMap does
+		h ^= h >>> 16;
+		return h & (locks.length - 1);
+	}
+
+	/**
+	 * Locks the stripes of both keys, lowest stripe first. Keys on the same
+	 * stripe lock it once.
+	 * @param first first key
+	 * @param second second key
+	 */
+	void lock(String first, String second) {
+		int a = stripe(first);
+		int b = stripe(second);
+		locks[Math.min(a, b)].lock();
+		if (a != b) {
+			locks[Math.max(a, b)].lock();
+		}
+	}
+
+	/**
+	 * Unlocks the stripes locked by lock(first, second).
+	 * @param first first key
+	 * @param second second key
+	 */
+	void unlock(String first, String second) {
+		int a = stripe(first);
+		int b = stripe(second);
+		if (a != b) {
+			locks[Math.max(a, b)].unlock();
+		}
+		locks[Math.min(a, b)].unlock();
+	}
+
+	/**
+	 * Locks the stripe of a single key.
+	 * @param key key to lock
+	 */
+	void lock(String key) {
+		locks[stripe(key)].lock();
+	}
+
+	/**
+	 * Unlocks the stripe of a single key.
+	 * @param key key to unlock
+	 */
+	void unlock(String key) {
+		locks[stripe(key)].unlock();
+	}
+
+	/**
+	 * Locks every stripe in order, for work that needs a consistent view of
+	 * all courses and students.
+	 */
+	void lockAll() {
+		for (int i = 0; i < locks.length; i++) {
+			locks[i].lock();
+		}
+	}
+
+	/**
+	 * Unlocks every stripe locked by lockAll().
+	 */
+	void unlockAll() {
+		for (int i = locks.length - 1; i >= 0; i--) {
+			locks[i].unlock();
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import edu.ncsu.csc216.course_manager.users.User;
+
+/**
+ * Checks passwords against the hashes users store. A check borrows a
+ * MessageDigest and buffers from a small pool and puts them back when it is
+ * done, so a check looks up no provider and, for an ASCII password,
+ * allocates nothing. The pool isn't tied to threads, so a server that runs
+ * each request on a new thread reuses the same few hashers. When every
+ * pooled hasher is in use a new one is made by cloning a prototype digest,
+ * and it is dropped afterwards if the pool is full. What the default
+ * charset does to each byte is worked out once for the class.
+ *
+ * A stored hash is the SHA-256 digest decoded as a String in the default
+ * charset, so bytes the charset can't decode were replaced when it was read,
+ * and replaced again when it was written. The digest is put through the same
+ * decode and encode before it is compared, which matches the hash whether it
+ * came from a generated file or from a file the CourseManager saved.
+ * @author Andrew Northrup
+ *
+ */
+final class PasswordHasher {
+	/** Hashing algorithm */
+	private static final String HASH_ALGORITHM = "SHA-256";
+	/** Printable ASCII, to check whether the default charset encodes it as ASCII */
+	private static final String ASCII_SAMPLE = " !\"#$%&'()*+,-./0123456789:;<=>?@"
+			+ "ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`abcdefghijklmnopqrstuvwxyz{|}~";
+	/** Most hashers kept for reuse */
+	private static final int POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+	/** Charset hashes are stored in */
+	private static final Charset CHARSET = Charset.defaultCharset();
+	/** True if the default charset encodes ASCII characters as single bytes */
+	private static final boolean ASCII_COMPATIBLE = Arrays.equals(ASCII_SAMPLE.getBytes(CHARSET),
+			ASCII_SAMPLE.getBytes(StandardCharsets.US_ASCII));
+	/**
+	 * Each byte decoded and encoded again, if the default charset has one
+	 * character per byte, or null
+	 */
+	private static final byte[] SINGLE_BYTES = singleByteTable(CHARSET);
+	/** Digest that is never used, only cloned for new hashers */
+	private static final MessageDigest PROTOTYPE = newDigest();
+	/** Hashers not in use */
+	private static final ArrayBlockingQueue<PasswordHasher> POOL = new ArrayBlockingQueue<PasswordHasher>(POOL_SIZE);
+
+	/** Digest reused for every check */
+	private final MessageDigest digest;
+	/** Encoded password */
+	private byte[] input;
+	/** Digest of the password */
+	private final byte[] hash;
+	/** Buffer over hash for the decoder, or null in a single byte charset */
+	private final ByteBuffer hashBuffer;
+	/** Decoder for the default charset, or null in a single byte charset */
+	private final CharsetDecoder decoder;
+	/** Digest decoded in the default charset, or null in a single byte charset */
+	private final CharBuffer chars;
+	/** Encoder for the default charset, or null in a single byte charset */
+	private final CharsetEncoder encoder;
+	/** Decoded digest encoded again, as it is stored, or null in a single byte charset */
+	private final ByteBuffer encoded;
+
+	/**
+	 * Creates a hasher with its own digest and buffers. Only charsets with
+	 * more than one byte per character need the decoder and encoder.
+	 */
+	private PasswordHasher() {
+		digest = cloneDigest();
+		input = new byte[64];
+		hash = new byte[digest.getDigestLength()];
+		if (SINGLE_BYTES != null) {
+			hashBuffer = null;
+			decoder = null;
+			chars = null;
+			encoder = null;
+			encoded = null;
+			return;
+		}
+		hashBuffer = ByteBuffer.wrap(hash);
+		decoder = CHARSET.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		encoder = CHARSET.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		chars = CharBuffer.allocate((int) Math.ceil(hash.length * (double) decoder.maxCharsPerByte()));
+		encoded = ByteBuffer.allocate((int) Math.ceil(chars.capacity() * (double) encoder.maxBytesPerChar()));
+	}
+
+	/**
+	 * Looks up the SHA-256 digest the prototype is made from.
+	 * @return new digest, or null if SHA-256 isn't available
+	 */
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a new digest, cloned from the prototype when the provider
+	 * allows it so the provider isn't looked up again.
+	 * @return new SHA-256 digest
+	 * @throws IllegalArgumentException if SHA-256 isn't available
+	 */
+	private static MessageDigest cloneDigest() {
+		if (PROTOTYPE == null) {
+			throw new IllegalArgumentException();
+		}
+		try {
+			return (MessageDigest) PROTOTYPE.clone();
+		} catch (CloneNotSupportedException e) {
+			MessageDigest digest = newDigest();
+			if (digest == null) {
+				throw new IllegalArgumentException();
+			}
+			return digest;
+		}
+	}
+
+	/**
+	 * Returns what each byte becomes when it is decoded and encoded again in
+	 * a charset that has one character per byte, such as US-ASCII or
+	 * ISO-8859-1. In such a charset each byte of a digest can be looked up
+	 * on its own.
+	 * @param charset default charset
+	 * @return table indexed by unsigned byte, or null if the charset doesn't
+	 * have one character per byte
+	 */
+	private static byte[] singleByteTable(Charset charset) {
+		if (charset.newDecoder().maxCharsPerByte() != 1.0f || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+			return null;
+		}
+		byte[] table = new byte[256];
+		for (int b = 0; b < table.length; b++) {
+			byte[] roundTrip = new String(new byte[] {(byte) b}, charset).getBytes(charset);
+			if (roundTrip.length != 1) {
+				return null;
+			}
+			table[b] = roundTrip[0];
+		}
+		return table;
+	}
+
+	/**
+	 * Returns true if the given password hashes to the user's stored hash.
+	 * @param user user logging in
+	 * @param password password given
+	 * @return true if the password is the user's
+	 */
+	static boolean matches(User user, String password) {
+		PasswordHasher hasher = POOL.poll();
+		if (hasher == null) {
+			hasher = new PasswordHasher();
+		}
+		try {
+			return hasher.check(user, password);
+		} finally {
+			//Dropped if the pool is already full
+			POOL.offer(hasher);
+		}
+	}
+
+	/**
+	 * Hashes the password, puts the digest through the charset and compares
+	 * it with the user's hash.
+	 * @param user user logging in
+	 * @param password password given
+	 * @return true if the password is the user's
+	 */
+	private boolean check(User user, String password) {
+		//A check that failed part way may have left input in the digest
+		digest.reset();
+		update(password);
+		try {
+			digest.digest(hash, 0, hash.length);
+		} catch (DigestException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		if (SINGLE_BYTES != null) {
+			for (int i = 0; i < hash.length; i++) {
+				hash[i] = SINGLE_BYTES[hash[i] & 0xff];
+			}
+			return user.hasPasswordHash(hash, hash.length);
+		}
+		hashBuffer.clear();
+		chars.clear();
+		decoder.reset();
+		decoder.decode(hashBuffer, chars, true);
+		decoder.flush(chars);
+		chars.flip();
+		encoded.clear();
+		encoder.reset();
+		encoder.encode(chars, encoded, true);
+		encoder.flush(encoded);
+		return user.hasPasswordHash(encoded.array(), encoded.position());
+	}
+
+	/**
+	 * Adds the password, encoded in the default charset, to the digest. An
+	 * ASCII password is copied into a reused array rather than encoded.
+	 * @param password password given
+	 */
+	private void update(String password) {
+		int length = password.length();
+		if (ASCII_COMPATIBLE) {
+			if (length > input.length) {
+				input = new byte[Math.max(length, input.length * 2)];
+			}
+			int i = 0;
+			while (i < length && password.charAt(i) < 0x80) {
+				input[i] = (byte) password.charAt(i);
+				i++;
+			}
+			if (i == length) {
+				digest.update(input, 0, length);
+				return;
+			}
+		}
+		digest.update(password.getBytes());
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import edu.ncsu.csc216.course_manager.users.User;
+
+/**
+ * Handle for one logged in user, returned by CourseManager.loginSession().
+ * Any number of sessions may be open at once, each from its own thread. A
+ * session stops working once it is logged out or the manager's data is
+ * cleared.
+ * @author Andrew Northrup
+ *
+ */
+public final class Session {
+	/** User logged in to this session */
+	private final User user;
+	/** True until the session is logged out */
+	private volatile boolean active;
+
+	/**
+	 * Creates an active session for the given user. Only CourseManager
+	 * creates sessions.
+	 * @param user logged in user
+	 */
+	Session(User user) {
+		this.user = user;
+		this.active = true;
+	}
+
+	/**
+	 * Returns the user logged in to this session.
+	 * @return logged in user
+	 */
+	public User getUser() {
+		return user;
+	}
+
+	/**
+	 * Returns true if the session hasn't been logged out.
+	 * @return true if the session is active
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Ends the session.
+	 */
+	void end() {
+		active = false;
+	}
+}
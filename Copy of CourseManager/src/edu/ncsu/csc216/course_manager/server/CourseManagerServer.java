@@ -0,0 +1,584 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.manager.Session;
+
+/**
+ * Headless HTTP front end for CourseManager, built on the JDK's
+ * com.sun.net.httpserver. Each request runs on its own virtual thread when the
+ * JDK running the server has them, which needs JDK 21 or later. The project is
+ * built for Java 8, so virtual threads are found at run time; on an older JDK
+ * requests run on a fixed pool of threads and wait in a queue when every
+ * thread is busy. Every logged in client gets its own Session, so any number
+ * of students can register at once. A session that isn't used for the idle
+ * timeout is logged out, so clients that never log out don't hold sessions
+ * for good.
+ *
+ * Requests and responses are plain text. Form fields are URL encoded in the
+ * request body, and the token returned by /login is sent back in an
+ * "Authorization: Bearer" header.
+ * <ul>
+ * <li>POST /login with id and password returns a token</li>
+ * <li>POST /logout ends the session</li>
+ * <li>GET /courses lists every course, one "name,credits,capacity" per line</li>
+ * <li>GET /courses/mine lists the logged in student's courses</li>
+ * <li>POST /add with course adds the student to the course</li>
+ * <li>POST /drop with course drops the student from the course</li>
+ * </ul>
+ * Add and drop answer "true" or "false" the same as CourseManager. A request
+ * without a valid session gets 401, a malformed request 400, and a change
+ * that can't be saved 500.
+ * @author Andrew Northrup
+ *
+ */
+public class CourseManagerServer {
+	/** Default port */
+	public static final int DEFAULT_PORT = 8216;
+	/** Connections queued before the server accepts them */
+	private static final int BACKLOG = 1024;
+	/** Bytes in a session token */
+	private static final int TOKEN_BYTES = 16;
+	/** Prefix of the Authorization header value */
+	private static final String BEARER = "Bearer ";
+	/** Encoding of request and response bodies */
+	private static final String ENCODING = "UTF-8";
+	/** Threads serving requests on a JDK without virtual threads */
+	static final int POOL_THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+	/** Default milliseconds a session may go unused before it is logged out */
+	public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+	/** Manager requests are served from */
+	private final CourseManager manager;
+	/** Underlying HTTP server */
+	private final HttpServer server;
+	/** Runs each request */
+	private final ExecutorService executor;
+	/** Open sessions keyed by token */
+	private final Map<String, OpenSession> sessions;
+	/** Source of session tokens */
+	private final SecureRandom random;
+	/** Nanoseconds a session may go unused before it is logged out */
+	private final long idleTimeout;
+	/** Logs out idle sessions */
+	private final ScheduledExecutorService sweeper;
+
+	/**
+	 * Creates a server for the manager bound to the given address, with the
+	 * default idle timeout. The server doesn't accept requests until start()
+	 * is called.
+	 * @param manager manager to serve
+	 * @param address address to bind, with port 0 for any free port
+	 * @throws IOException if the address can't be bound
+	 */
+	public CourseManagerServer(CourseManager manager, InetSocketAddress address) throws IOException {
+		this(manager, address, DEFAULT_IDLE_TIMEOUT);
+	}
+
+	/**
+	 * Creates a server for the manager bound to the given address. A session
+	 * that isn't used for idleTimeout milliseconds is logged out. The server
+	 * doesn't accept requests until start() is called.
+	 * @param manager manager to serve
+	 * @param address address to bind, with port 0 for any free port
+	 * @param idleTimeout milliseconds a session may go unused
+	 * @throws IOException if the address can't be bound
+	 * @throws IllegalArgumentException if idleTimeout isn't positive
+	 */
+	public CourseManagerServer(CourseManager manager, InetSocketAddress address, long idleTimeout)
+			throws IOException {
+		if (idleTimeout <= 0) {
+			throw new IllegalArgumentException("Idle timeout must be positive");
+		}
+		this.manager = manager;
+		this.sessions = new ConcurrentHashMap<String, OpenSession>();
+		this.random = new SecureRandom();
+		this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "session-sweeper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.server = HttpServer.create(address, BACKLOG);
+		this.executor = newRequestExecutor();
+		server.setExecutor(executor);
+		server.createContext("/login", new Endpoint("POST") {
+			@Override
+			String respond(HttpExchange exchange, Map<String, String> form) {
+				Session session = manager.loginSession(field(form, "id"), field(form, "password"));
+				if (session == null) {
+					throw new HttpError(401, "Invalid id or password");
+				}
+				String token = newToken();
+				sessions.put(token, new OpenSession(session));
+				return token;
+			}
+		});
+		server.createContext("/logout", new Endpoint("POST") {
+			@Override
+			String respond(HttpExchange exchange, Map<String, String> form) {
+				String token = token(exchange);
+				OpenSession open = token == null ? null : sessions.remove(token);
+				if (open == null) {
+					throw new HttpError(401, "User is not logged in.");
+				}
+				manager.logout(open.session);
+				return "";
+			}
+		});
+		server.createContext("/courses", new Endpoint("GET") {
+			@Override
+			String respond(HttpExchange exchange, Map<String, String> form) {
+				String path = exchange.getRequestURI().getPath();
+				if (path.equals("/courses")) {
+					return lines(manager.getCatalog());
+				} else if (path.equals("/courses/mine")) {
+					Session session = session(exchange);
+					try {
+						return lines(manager.listUserCourses(session));
+					} catch (IllegalArgumentException e) {
+						throw failure(session, e);
+					}
+				}
+				throw new HttpError(404, "Not found");
+			}
+		});
+		server.createContext("/add", new Endpoint("POST") {
+			@Override
+			String respond(HttpExchange exchange, Map<String, String> form) {
+				Session session = session(exchange);
+				Course course = course(form);
+				try {
+					return String.valueOf(manager.addUserToCourse(session, course));
+				} catch (IllegalArgumentException e) {
+					throw failure(session, e);
+				}
+			}
+		});
+		server.createContext("/drop", new Endpoint("POST") {
+			@Override
+			String respond(HttpExchange exchange, Map<String, String> form) {
+				Session session = session(exchange);
+				Course course = course(form);
+				try {
+					return String.valueOf(manager.removeUserFromCourse(session, course));
+				} catch (IllegalArgumentException e) {
+					throw failure(session, e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Starts accepting requests, and checks for idle sessions twice in each
+	 * idle timeout.
+	 */
+	public void start() {
+		long period = Math.max(1, idleTimeout / 2);
+		sweeper.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				expireIdleSessions();
+			}
+		}, period, period, TimeUnit.NANOSECONDS);
+		server.start();
+	}
+
+	/**
+	 * Stops the server, waiting up to the given time for open requests, and
+	 * logs out every session it opened.
+	 * @param delay seconds to wait for open requests
+	 */
+	public void stop(int delay) {
+		server.stop(delay);
+		executor.shutdown();
+		sweeper.shutdown();
+		for (OpenSession open : sessions.values()) {
+			manager.logout(open.session);
+		}
+		sessions.clear();
+	}
+
+	/**
+	 * Returns the number of sessions the server has open.
+	 * @return open sessions
+	 */
+	int openSessions() {
+		return sessions.size();
+	}
+
+	/**
+	 * Logs out every session that hasn't been used for the idle timeout.
+	 */
+	void expireIdleSessions() {
+		long now = System.nanoTime();
+		for (Map.Entry<String, OpenSession> entry : sessions.entrySet()) {
+			if (now - entry.getValue().lastUsed > idleTimeout) {
+				expire(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Removes an open session and logs it out, unless another thread has
+	 * already removed it.
+	 * @param token token of the session
+	 * @param open the open session
+	 */
+	private void expire(String token, OpenSession open) {
+		if (sessions.remove(token, open)) {
+			manager.logout(open.session);
+		}
+	}
+
+	/**
+	 * Returns the port the server is bound to.
+	 * @return bound port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns an executor that runs each task on a new virtual thread, or a
+	 * pool of POOL_THREADS threads on a JDK without virtual threads, so a
+	 * burst of connections can't start a thread each.
+	 * @return executor for requests
+	 */
+	static ExecutorService newRequestExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(POOL_THREADS);
+		}
+	}
+
+	/**
+	 * Returns a new random session token.
+	 * @return hex token
+	 */
+	private String newToken() {
+		byte[] bytes = new byte[TOKEN_BYTES];
+		random.nextBytes(bytes);
+		StringBuilder sb = new StringBuilder(TOKEN_BYTES * 2);
+		for (int i = 0; i < bytes.length; i++) {
+			sb.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(bytes[i] & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the token from the request's Authorization header.
+	 * @param exchange request
+	 * @return token, or null if there is none
+	 */
+	private static String token(HttpExchange exchange) {
+		String header = exchange.getRequestHeaders().getFirst("Authorization");
+		if (header == null || !header.startsWith(BEARER)) {
+			return null;
+		}
+		return header.substring(BEARER.length()).trim();
+	}
+
+	/**
+	 * Returns the session for the request's token and marks it as used. A
+	 * session that has gone unused for the idle timeout is logged out.
+	 * @param exchange request
+	 * @return session of the logged in user
+	 * @throws HttpError if the token doesn't match an open session
+	 */
+	private Session session(HttpExchange exchange) {
+		String token = token(exchange);
+		OpenSession open = token == null ? null : sessions.get(token);
+		if (open == null) {
+			throw new HttpError(401, "User is not logged in.");
+		}
+		long now = System.nanoTime();
+		if (now - open.lastUsed > idleTimeout) {
+			expire(token, open);
+			throw new HttpError(401, "User is not logged in.");
+		}
+		open.lastUsed = now;
+		return open.session;
+	}
+
+	/**
+	 * Returns the error to send when CourseManager rejects a request for a
+	 * session. The manager rejects a session that was logged out while the
+	 * request ran; any other rejection is a change that couldn't be saved.
+	 * @param session session of the request
+	 * @param e exception thrown by the manager
+	 * @return 401 error if the session has ended, 500 error otherwise
+	 */
+	private static HttpError failure(Session session, IllegalArgumentException e) {
+		if (!session.isActive()) {
+			return new HttpError(401, "User is not logged in.");
+		}
+		return new HttpError(500, e.getMessage());
+	}
+
+	/**
+	 * Returns a field of the request's form.
+	 * @param form request fields
+	 * @param name name of the field
+	 * @return value of the field
+	 * @throws HttpError if the form doesn't have the field
+	 */
+	private static String field(Map<String, String> form, String name) {
+		String value = form.get(name);
+		if (value == null) {
+			throw new HttpError(400, "Missing " + name);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the course named by the request's course field.
+	 * @param form request fields
+	 * @return the course
+	 * @throws HttpError if the field is missing or there is no such course
+	 */
+	private Course course(Map<String, String> form) {
+		Course course = manager.getCourseByName(field(form, "course"));
+		if (course == null) {
+			throw new HttpError(404, "No such course");
+		}
+		return course;
+	}
+
+	/**
+	 * Writes one course per line.
+	 * @param courses courses to write
+	 * @return courses as text
+	 */
+	private static String lines(Course[] courses) {
+		return lines(Arrays.asList(courses));
+	}
+
+	/**
+	 * Writes one course per line.
+	 * @param courses courses to write
+	 * @return courses as text
+	 */
+	private static String lines(List<Course> courses) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < courses.size(); i++) {
+			sb.append(courses.get(i).toString()).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Parses a URL encoded form.
+	 * @param body form text
+	 * @return fields by name
+	 * @throws UnsupportedEncodingException never, UTF-8 is always supported
+	 * @throws IllegalArgumentException if an escape in the form is malformed
+	 */
+	static Map<String, String> parseForm(String body) throws UnsupportedEncodingException {
+		Map<String, String> form = new HashMap<String, String>();
+		if (body == null || body.isEmpty()) {
+			return form;
+		}
+		String[] pairs = body.split("&");
+		for (int i = 0; i < pairs.length; i++) {
+			int equals = pairs[i].indexOf('=');
+			if (equals < 0) {
+				form.put(URLDecoder.decode(pairs[i], ENCODING), "");
+			} else {
+				form.put(URLDecoder.decode(pairs[i].substring(0, equals), ENCODING),
+						URLDecoder.decode(pairs[i].substring(equals + 1), ENCODING));
+			}
+		}
+		return form;
+	}
+
+	/**
+	 * Reads a whole request body.
+	 * @param in request body
+	 * @return body as text
+	 * @throws IOException if the body can't be read
+	 */
+	private static String readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toString(ENCODING);
+	}
+
+	/**
+	 * Sends a plain text response and closes the exchange.
+	 * @param exchange request to answer
+	 * @param status HTTP status code
+	 * @param text response body
+	 * @throws IOException if the response can't be sent
+	 */
+	private static void send(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] body = text.getBytes(ENCODING);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+		OutputStream out = exchange.getResponseBody();
+		try {
+			out.write(body);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Session opened by /login, with the time it was last used.
+	 */
+	private static class OpenSession {
+		/** Session in the manager */
+		private final Session session;
+		/** System.nanoTime() of the last request for the session */
+		private volatile long lastUsed;
+
+		/**
+		 * Opens a session that was used just now.
+		 * @param session session in the manager
+		 */
+		OpenSession(Session session) {
+			this.session = session;
+			this.lastUsed = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Error that is sent back as an HTTP status and message.
+	 */
+	private static class HttpError extends RuntimeException {
+		/** Serial version */
+		private static final long serialVersionUID = 1L;
+		/** HTTP status code */
+		private final int status;
+
+		/**
+		 * Creates an error with the given status and message.
+		 * @param status HTTP status code
+		 * @param message response body
+		 */
+		HttpError(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * Handler for one path that checks the method, parses the form and maps
+	 * errors to status codes.
+	 */
+	private abstract static class Endpoint implements HttpHandler {
+		/** HTTP method the endpoint accepts */
+		private final String method;
+
+		/**
+		 * Creates an endpoint for the given method.
+		 * @param method accepted HTTP method
+		 */
+		Endpoint(String method) {
+			this.method = method;
+		}
+
+		/**
+		 * Answers the request.
+		 * @param exchange request to answer
+		 * @throws IOException if the request can't be read or answered
+		 */
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				if (!exchange.getRequestMethod().equals(method)) {
+					exchange.getResponseHeaders().set("Allow", method);
+					send(exchange, 405, "Method not allowed");
+					return;
+				}
+				Map<String, String> form;
+				try {
+					form = parseForm(readBody(exchange.getRequestBody()));
+				} catch (IllegalArgumentException e) {
+					throw new HttpError(400, "Malformed form");
+				}
+				send(exchange, 200, respond(exchange, form));
+			} catch (HttpError e) {
+				send(exchange, e.status, e.getMessage());
+			} catch (IllegalArgumentException e) {
+				send(exchange, 500, e.getMessage());
+			} finally {
+				exchange.close();
+			}
+		}
+
+		/**
+		 * Handles a request and returns the response body.
+		 * @param exchange request
+		 * @param form fields of the request body
+		 * @return response body
+		 */
+		abstract String respond(HttpExchange exchange, Map<String, String> form);
+	}
+
+	/**
+	 * Loads the course and student files and serves them until the process
+	 * is stopped, then saves both files:
+	 * courseFile studentFile [port]
+	 * @param args command line arguments
+	 * @throws IOException if the port can't be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || args.length > 3) {
+			System.err.println("Usage: CourseManagerServer courseFile studentFile [port]");
+			System.exit(1);
+		}
+		final CourseManager manager = CourseManager.getInstance();
+		manager.loadCourses(args[0]);
+		manager.loadStudents(args[1]);
+		int port = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+		final CourseManagerServer server = new CourseManagerServer(manager, new InetSocketAddress(port));
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				server.stop(1);
+				manager.saveCourses();
+				manager.saveStudents();
+			}
+		});
+		server.start();
+		System.out.println("Serving on port " + server.getPort());
+	}
+}
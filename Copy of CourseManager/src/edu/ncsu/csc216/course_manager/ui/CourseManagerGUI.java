@@ -14,6 +14,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
@@ -24,16 +26,19 @@ import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPasswordField;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListCellRenderer;
 import javax.swing.ListSelectionModel;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingWorker;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
 import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.io.RecordStore;
 import edu.ncsu.csc216.course_manager.manager.CourseManager;
 
 /**
@@ -64,6 +69,10 @@ public class CourseManagerGUI extends JFrame {
 	private final StudentPanel studentPanel = new StudentPanel();
 	/** Reference to the CourseManager */
 	private CourseManager manager;
+	/** Nanoseconds between progress updates while loading a file */
+	private static final long PROGRESS_INTERVAL = 100000000L;
+	/** Bytes in a megabyte, for showing progress */
+	private static final double MEGABYTE = 1024.0 * 1024.0;
 
 	/**
 	 * Constructs the GUI an sets up the screens into a CardLayout.
@@ -153,6 +162,14 @@ public class CourseManagerGUI extends JFrame {
 		
 		/** Reset Button */
 		private JButton btnReset;
+		/** Cancel button for a file being loaded */
+		private JButton btnCancel;
+		/** Progress of the file being loaded */
+		private JProgressBar progressBar;
+		/** Rate and time left of the file being loaded */
+		private JLabel lblProgress;
+		/** Worker loading a file, or null if no file is loading */
+		private LoadWorker worker;
 		
 		/** FileName for course records file */
 		private String courseFileName;
@@ -286,6 +303,38 @@ public class CourseManagerGUI extends JFrame {
 			add(btnReset, c);
 			btnReset.addActionListener(this);
 			
+			//Cancel button for a file being loaded
+			btnCancel = new JButton("Cancel");
+			c.gridx = 1;
+			c.gridy = 8;
+			c.gridwidth = 1;
+			c.weightx = 1.0;
+			c.anchor = GridBagConstraints.FIRST_LINE_START;
+			c.fill = GridBagConstraints.RELATIVE;
+			add(btnCancel, c);
+			btnCancel.addActionListener(this);
+			btnCancel.setEnabled(false);
+			
+			//Progress of the file being loaded
+			progressBar = new JProgressBar(0, 100);
+			progressBar.setStringPainted(true);
+			c.gridx = 0;
+			c.gridy = 9;
+			c.gridwidth = 2;
+			c.weightx = 0.0;
+			c.anchor = GridBagConstraints.FIRST_LINE_START;
+			c.fill = GridBagConstraints.HORIZONTAL;
+			add(progressBar, c);
+			
+			lblProgress = new JLabel(" ");
+			c.gridx = 0;
+			c.gridy = 10;
+			c.gridwidth = 2;
+			c.weightx = 1.0;
+			c.anchor = GridBagConstraints.FIRST_LINE_START;
+			c.fill = GridBagConstraints.RELATIVE;
+			add(lblProgress, c);
+			
 		}
 
 		/**
@@ -304,25 +353,7 @@ public class CourseManagerGUI extends JFrame {
 				btnBrowseStudentRecords.setEnabled(false);
 				btnLoadStudentRecords.setEnabled(false);
 			} else if (e.getSource() == btnLoadCourseRecords) {
-				try {
-					manager.loadCourses(courseFileName);
-					
-					//Reset buttons
-					btnBrowseCourseRecords.setEnabled(false);
-					btnLoadCourseRecords.setEnabled(false);
-					btnBrowseStudentRecords.setEnabled(true);
-					btnLoadStudentRecords.setEnabled(false);
-				} catch (IllegalArgumentException iae) {
-					JOptionPane.showMessageDialog(this, iae.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-					
-					//Reset buttons
-					btnBrowseCourseRecords.setEnabled(true);
-					btnLoadCourseRecords.setEnabled(false);
-					btnBrowseStudentRecords.setEnabled(false);
-					btnLoadStudentRecords.setEnabled(false);
-					
-					txtCourseRecords.setText("");
-				}				
+				startLoad(courseFileName, false);
 			} else if (e.getSource() == btnBrowseStudentRecords) {
 				studentFileName = getFileName();
 				txtStudentRecords.setText(studentFileName);
@@ -333,25 +364,19 @@ public class CourseManagerGUI extends JFrame {
 				btnBrowseStudentRecords.setEnabled(false);
 				btnLoadStudentRecords.setEnabled(true);
 			} else if (e.getSource() == btnLoadStudentRecords) {
-				try {
-					manager.loadStudents(studentFileName);
-				
-					cardLayout.show(panel, LOGIN_PANEL);
-				} catch (IllegalArgumentException iae) {
-					JOptionPane.showMessageDialog(this, iae.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-					
-					//Reset buttons
-					btnBrowseCourseRecords.setEnabled(false);
-					btnLoadCourseRecords.setEnabled(false);
-					btnBrowseStudentRecords.setEnabled(true);
-					btnLoadStudentRecords.setEnabled(false);
-					
-					txtStudentRecords.setText("");
+				startLoad(studentFileName, true);
+			} else if (e.getSource() == btnCancel) {
+				if (worker != null) {
+					worker.stop();
+					lblProgress.setText("Cancelling...");
 				}
+				btnCancel.setEnabled(false);
 			} else if (e.getSource() == btnReset) {
 				manager.clearData();
 				txtCourseRecords.setText("");
 				txtStudentRecords.setText("");
+				progressBar.setValue(0);
+				lblProgress.setText(" ");
 				
 				//Reset buttons
 				btnBrowseCourseRecords.setEnabled(true);
@@ -361,6 +386,192 @@ public class CourseManagerGUI extends JFrame {
 			}
 		}
 		
+		/**
+		 * Starts loading a file on a background worker so the window keeps
+		 * responding. Every button but Cancel is disabled until the worker
+		 * is done.
+		 * @param fileName file to load
+		 * @param students true to load students, false to load courses
+		 */
+		private void startLoad(String fileName, boolean students) {
+			btnBrowseCourseRecords.setEnabled(false);
+			btnLoadCourseRecords.setEnabled(false);
+			btnBrowseStudentRecords.setEnabled(false);
+			btnLoadStudentRecords.setEnabled(false);
+			btnReset.setEnabled(false);
+			btnCancel.setEnabled(true);
+			progressBar.setValue(0);
+			lblProgress.setText("Loading...");
+			
+			worker = new LoadWorker(fileName, students);
+			worker.execute();
+		}
+		
+		/**
+		 * Loads a course or student records file off the event dispatch
+		 * thread. Progress is published as the file is read and shown on the
+		 * progress bar with the read rate and the time left. Cancelling
+		 * interrupts the worker, which stops the read; the manager then keeps
+		 * nothing from the file.
+		 */
+		private class LoadWorker extends SwingWorker<Void, Long> {
+			/** File to load */
+			private final String fileName;
+			/** True to load students, false to load courses */
+			private final boolean students;
+			/** Time the load started, from System.nanoTime() */
+			private final long start;
+			/** Bytes in the file, as last reported by the record store */
+			private volatile long totalBytes;
+			/** Time progress was last published */
+			private long lastPublish;
+			/** Lock for thread and stopRequested */
+			private final Object lock = new Object();
+			/** Thread running the load, or null if it isn't running */
+			private Thread thread;
+			/** True once Cancel has been pressed */
+			private boolean stopRequested;
+			
+			/**
+			 * Creates a worker for the given file.
+			 * @param fileName file to load
+			 * @param students true to load students, false to load courses
+			 */
+			LoadWorker(String fileName, boolean students) {
+				this.fileName = fileName;
+				this.students = students;
+				this.start = System.nanoTime();
+			}
+			
+			/**
+			 * Asks the load to stop by interrupting the thread running it.
+			 */
+			void stop() {
+				synchronized (lock) {
+					stopRequested = true;
+					if (thread != null) {
+						thread.interrupt();
+					}
+				}
+			}
+			
+			/**
+			 * Returns true if Cancel has been pressed.
+			 * @return true if the load was asked to stop
+			 */
+			boolean isStopRequested() {
+				synchronized (lock) {
+					return stopRequested;
+				}
+			}
+			
+			/**
+			 * Loads the file into the CourseManager, publishing the bytes read
+			 * at most once per PROGRESS_INTERVAL and once at the end.
+			 * @return nothing
+			 */
+			@Override
+			protected Void doInBackground() {
+				synchronized (lock) {
+					thread = Thread.currentThread();
+					if (stopRequested) {
+						thread.interrupt();
+					}
+				}
+				try {
+					RecordStore.ProgressListener listener = new RecordStore.ProgressListener() {
+						@Override
+						public void bytesRead(long bytesRead, long total) {
+							totalBytes = total;
+							long now = System.nanoTime();
+							if (bytesRead == total || now - lastPublish >= PROGRESS_INTERVAL) {
+								lastPublish = now;
+								publish(bytesRead);
+							}
+						}
+					};
+					if (students) {
+						manager.loadStudents(fileName, listener);
+					} else {
+						manager.loadCourses(fileName, listener);
+					}
+				} finally {
+					synchronized (lock) {
+						thread = null;
+						//Don't leave the interrupt on the pooled worker thread
+						Thread.interrupted();
+					}
+				}
+				return null;
+			}
+			
+			/**
+			 * Shows the latest progress on the event dispatch thread.
+			 * @param chunks bytes read, oldest first
+			 */
+			@Override
+			protected void process(List<Long> chunks) {
+				long bytesRead = chunks.get(chunks.size() - 1);
+				long total = totalBytes;
+				progressBar.setValue(total == 0 ? 100 : (int) (bytesRead * 100 / total));
+				lblProgress.setText(describeProgress(bytesRead, total, System.nanoTime() - start));
+			}
+			
+			/**
+			 * Moves on when the file is loaded, or resets the buttons if the
+			 * load failed or was cancelled.
+			 */
+			@Override
+			protected void done() {
+				worker = null;
+				btnCancel.setEnabled(false);
+				btnReset.setEnabled(true);
+				try {
+					get();
+					progressBar.setValue(100);
+					lblProgress.setText(" ");
+					if (students) {
+						cardLayout.show(panel, LOGIN_PANEL);
+					} else {
+						//Reset buttons
+						btnBrowseCourseRecords.setEnabled(false);
+						btnLoadCourseRecords.setEnabled(false);
+						btnBrowseStudentRecords.setEnabled(true);
+						btnLoadStudentRecords.setEnabled(false);
+					}
+				} catch (ExecutionException ee) {
+					progressBar.setValue(0);
+					if (isStopRequested()) {
+						lblProgress.setText("Loading cancelled");
+						
+						//Reset buttons so the same file can be loaded again
+						btnBrowseCourseRecords.setEnabled(false);
+						btnLoadCourseRecords.setEnabled(!students);
+						btnBrowseStudentRecords.setEnabled(false);
+						btnLoadStudentRecords.setEnabled(students);
+						return;
+					}
+					lblProgress.setText(" ");
+					JOptionPane.showMessageDialog(InitPanel.this, ee.getCause().getMessage(), "Error",
+							JOptionPane.ERROR_MESSAGE);
+					
+					//Reset buttons
+					btnBrowseCourseRecords.setEnabled(!students);
+					btnLoadCourseRecords.setEnabled(false);
+					btnBrowseStudentRecords.setEnabled(students);
+					btnLoadStudentRecords.setEnabled(false);
+					
+					if (students) {
+						txtStudentRecords.setText("");
+					} else {
+						txtCourseRecords.setText("");
+					}
+				} catch (InterruptedException ie) {
+					//done() is only called once the load has finished
+				}
+			}
+		}
+		
 		/**
 		 * Returns a file name generated through interactions with a {@link JFileChooser}
 		 * object.
@@ -379,6 +590,25 @@ public class CourseManagerGUI extends JFrame {
 		
 	}
 	
+	/**
+	 * Describes how far a load has got, how fast it is reading and how long
+	 * it has left.
+	 * @param bytesRead bytes read so far
+	 * @param totalBytes bytes in the whole file
+	 * @param elapsed nanoseconds since the load started
+	 * @return description of the progress
+	 */
+	private static String describeProgress(long bytesRead, long totalBytes, long elapsed) {
+		String read = String.format("%.1f of %.1f MB", bytesRead / MEGABYTE, totalBytes / MEGABYTE);
+		double seconds = elapsed / 1e9;
+		if (bytesRead == 0 || seconds <= 0) {
+			return read;
+		}
+		double rate = bytesRead / seconds;
+		long left = (long) Math.ceil((totalBytes - bytesRead) / rate);
+		return String.format("%s at %.1f MB/s, %d s left", read, rate / MEGABYTE, left);
+	}
+	
 	/**
 	 * Creates a panel for user authentication into the system.
 	 * @author SarahHeckman
@@ -521,6 +751,8 @@ public class CourseManagerGUI extends JFrame {
 		private DefaultListModel<Course> listModelAllCourses;
 		/** JScrollPane for all courses */
 		private JScrollPane listScrollerAllCourses;
+		/** Catalog shown in the all courses list */
+		private List<Course> shownCatalog;
 				
 		/** JButton for add */
 		private JButton btnAddCourse;
@@ -686,10 +918,15 @@ public class CourseManagerGUI extends JFrame {
 				listModelMyCourses.addElement(courses[i]);
 			}
 			
-			listModelAllCourses.clear();
-			Course [] allCourses = manager.listAllCourses();
-			for (int i = 0; i < allCourses.length; i++) {
-				listModelAllCourses.addElement(allCourses[i]);
+			//The catalog is only replaced when courses change, so most updates
+			//can keep the list as it is
+			List<Course> catalog = manager.getCatalog();
+			if (catalog != shownCatalog) {
+				listModelAllCourses.clear();
+				for (int i = 0; i < catalog.size(); i++) {
+					listModelAllCourses.addElement(catalog.get(i));
+				}
+				shownCatalog = catalog;
 			}
 		}
 		
@@ -0,0 +1,46 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.users;
+
+/**
+ * Shares one String between users with the same first name, last name or
+ * email domain. The pool is a fixed-size table that keeps the last string
+ * seen in each slot, so common names stay shared while rare ones are
+ * replaced, and the pool never grows however many users are loaded.
+ *
+ * Slots are read and written without a lock. A thread may miss a string
+ * another thread just stored, which only costs a copy that isn't shared;
+ * Strings are immutable, so a string read from a slot is always complete.
+ * @author Andrew Northrup
+ *
+ */
+final class NamePool {
+	/** Number of slots, a power of two */
+	private static final int SIZE = 1 << 12;
+	/** Last string stored in each slot */
+	private static final String[] SLOTS = new String[SIZE];
+
+	/**
+	 * No instances; the pool is shared by every user.
+	 */
+	private NamePool() {
+	}
+
+	/**
+	 * Returns the pooled string equal to the given one, or pools the given
+	 * string if its slot holds a different one.
+	 * @param name string to share
+	 * @return equal string from the pool
+	 */
+	static String share(String name) {
+		int h = name.hashCode();
+		int i = (h ^ (h >>> 16)) & (SIZE - 1);
+		String pooled = SLOTS[i];
+		if (name.equals(pooled)) {
+			return pooled;
+		}
+		SLOTS[i] = name;
+		return name;
+	}
+}
@@ -3,7 +3,7 @@
  */
 package edu.ncsu.csc216.course_manager.users;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import edu.ncsu.csc216.course_manager.courses.Course;
 
@@ -13,10 +13,14 @@ import edu.ncsu.csc216.course_manager.courses.Course;
  *
  */
 public class Student extends User {
-	/**List of a student's courses they are enrolled in*/
-	private ArrayList<Course> courses;
+	/**Courses the student is enrolled in, in the order added, with no spare room*/
+	private Course[] courses;
+	/**Course list of a student with no courses, shared by every such student*/
+	private static final Course[] NO_COURSES = new Course[0];
 	/**Max credits particular student may take*/
 	private int maxCredits;
+	/**Running total of the credits in courses*/
+	private int currentCredits;
 	/**Max credits any student may take*/
 	public final static int MAX_CREDITS = 18;
 	/**
@@ -34,7 +38,7 @@ public class Student extends User {
 		this(firstName, lastName, id, email, password, MAX_CREDITS);
 	}
 	/**
-	 * Constructor for creating a student and an array list of the student's courses
+	 * Constructor for creating a student and an empty list of the student's courses
 	 * @param firstName students first name
 	 * @param lastName students last name
 	 * @param id students id
@@ -45,11 +49,28 @@ public class Student extends User {
 	public Student(String firstName, String lastName, String id, String email,
 			String password, int maxCredits) {
 		super(firstName, lastName, id, email, password);
-		courses = new ArrayList<Course>();
+		courses = NO_COURSES;
 		setMaxCredits(maxCredits);
 		
 	}
 
+	/**
+	 * Creates a copy of a student that keeps the courses the student has at
+	 * this moment. The copy isn't on any course's roster and doesn't change
+	 * when the student adds or drops a course, so it can be saved while
+	 * registration goes on.
+	 * @param other student to copy
+	 */
+	public Student(Student other) {
+		super(other);
+		synchronized (other) {
+			//The course list is replaced rather than changed, so it can be shared
+			courses = other.courses;
+			maxCredits = other.maxCredits;
+			currentCredits = other.currentCredits;
+		}
+	}
+
 
 	/**
 	 * Determines if the student can add the course that is passed in based on maxCredits and their current
@@ -58,34 +79,65 @@ public class Student extends User {
 	 * @return true or false based on whether a student can add the course
 	 */
 	@Override
-	public boolean canAddCourse(Course c) {
-		if (c.getCredits() + getCurrentCredits() > maxCredits || courses.contains(c)) {
+	public synchronized boolean canAddCourse(Course c) {
+		if (c.getCredits() + getCurrentCredits() > maxCredits || indexOf(c) != -1) {
 			return false;
 		}
 		return true;
 	}
 	/**Method returns the number of credits a Student 
-	 * added to their courses list
+	 * added to their courses list. The total is kept up to date by addCourse
+	 * and removeCourse; with assertions enabled it is checked against a sum
+	 * over the course list.
 	 * @return current number of credits a student is currently in course list.
 	 */
-	public int getCurrentCredits() {
-		int currentCredits = 0;
-		for (int i = 0; i < courses.size(); i++) {
-			currentCredits = currentCredits + courses.get(i).getCredits();		
-		}
+	public synchronized int getCurrentCredits() {
+		assert currentCredits == sumCredits() : "Cached credits " + currentCredits
+				+ " do not match course list total " + sumCredits();
 		return currentCredits;
 	}
 
+	/**
+	 * Sums the credits of every course in the course list.
+	 * @return total credits in the course list
+	 */
+	private int sumCredits() {
+		int total = 0;
+		for (int i = 0; i < courses.length; i++) {
+			total = total + courses[i].getCredits();
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the position of a course in the course list.
+	 * @param c course to find
+	 * @return index of the course, or -1 if it isn't in the list
+	 */
+	private int indexOf(Course c) {
+		for (int i = 0; i < courses.length; i++) {
+			if (courses[i].equals(c)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 
 	/**Returns true if course is added and false if it is not. Calls 
-	 * canAddCourse to determine if student can add the course.
+	 * canAddCourse to determine if student can add the course. The course
+	 * list is replaced by one a course longer, since students take few
+	 * courses and change them rarely.
 	 * @param course object that student is trying to add
 	 * @return true if course was added, false if it was not
 	 */
 	@Override
-	public boolean addCourse(Course c) {
+	public synchronized boolean addCourse(Course c) {
 		if (canAddCourse(c)) {
-			courses.add(c);
+			Course[] added = Arrays.copyOf(courses, courses.length + 1);
+			added[courses.length] = c;
+			courses = added;
+			currentCredits += c.getCredits();
 			return true;
 		}
 		return false;
@@ -98,9 +150,18 @@ public class Student extends User {
 	 * @return true if course was removed, false if it was not
 	 */
 	@Override
-	public boolean removeCourse(Course c) {
-		if (courses.contains(c)) {
-			courses.remove(c);
+	public synchronized boolean removeCourse(Course c) {
+		int index = indexOf(c);
+		if (index != -1) {
+			currentCredits -= courses[index].getCredits();
+			if (courses.length == 1) {
+				courses = NO_COURSES;
+			} else {
+				Course[] removed = new Course[courses.length - 1];
+				System.arraycopy(courses, 0, removed, 0, index);
+				System.arraycopy(courses, index + 1, removed, index, removed.length - index);
+				courses = removed;
+			}
 			return true;
 		}	
 		return false;
@@ -111,22 +172,15 @@ public class Student extends User {
 	 *@return array of courses the student is in
 	 */
 	@Override
-	public Course[] getCourses() {
-		// TODO Auto-generated method stub
-	//	Course[] courseList = new Course[courses.size()];
-	//	for (int i = 0; i < courses.size(); i++) {
-	//		courseList[i] = courses.get(i);		
-	//	}
-	//	return courseList;
-		Course [] c = new Course[courses.size()];
-		return courses.toArray(c);
+	public synchronized Course[] getCourses() {
+		return courses.clone();
 	}
 
 	/**
 	 * Gets student's maxCredits allowed to enroll in
 	 * @return maxCredits that the particular student object is allowed to enroll in
 	 */
-	public int getMaxCredits() {
+	public synchronized int getMaxCredits() {
 		return maxCredits;
 	}
 
@@ -138,7 +192,7 @@ public class Student extends User {
 	 * @throws IllegalArgumentException	 if max credits is less than current credits or
 	 * if maxCredits exceeds all student maximum credit hours or if negative number is passed in for maxCredits* 
 	 */
-	public void setMaxCredits(int maxCredits) {
+	public synchronized void setMaxCredits(int maxCredits) {
 		if (maxCredits > MAX_CREDITS || maxCredits < 0 || maxCredits < getCurrentCredits()) {
 			throw new IllegalArgumentException();
 		}
@@ -153,7 +207,7 @@ public class Student extends User {
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
-		result = prime * result + ((courses == null) ? 0 : courses.hashCode());
+		result = prime * result + Arrays.hashCode(courses);
 		result = prime * result + maxCredits;
 		return result;
 	}
@@ -172,10 +226,7 @@ public class Student extends User {
 		if (getClass() != obj.getClass())
 			return false;
 		Student other = (Student) obj;
-		if (courses == null) {
-			if (other.courses != null)
-				return false;
-		} else if (!courses.equals(other.courses))
+		if (!Arrays.equals(courses, other.courses))
 			return false;
 		if (maxCredits != other.maxCredits)
 			return false;
@@ -188,12 +239,13 @@ public class Student extends User {
 	 * student courses separated by a comma"
 	 */
 	@Override
-	public String toString() {
-		String studentCourses = "";
-		for (int i = 0; i < courses.size(); i++) {
-			  studentCourses = studentCourses + "," + courses.get(i).getName();
-			}
-		return super.toString() + "," + maxCredits + studentCourses;
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder(super.toString());
+		sb.append(',').append(maxCredits);
+		for (int i = 0; i < courses.length; i++) {
+			sb.append(',').append(courses[i].getName());
+		}
+		return sb.toString();
 	}
 
 }
@@ -18,10 +18,14 @@ public abstract class User {
 	private String lastName;
 	/** User's id */
 	private String id;
-	/** User's email */
-	private String email;
+	/** Part of the user's email before the @, or null if it is the id */
+	private String emailLocal;
+	/** Part of the user's email after the @ */
+	private String emailDomain;
 	/** User's hashed password */
 	private String password;
+	/** Hashed password encoded in the default charset, made on the first check, or null */
+	private volatile byte[] passwordBytes;
 
 	/**
 	 * Creates a new user with the following information. If any of the inputs
@@ -45,6 +49,21 @@ public abstract class User {
 		setPassword(password);
 	}
 
+	/**
+	 * Creates a user with the same name, id, email and password as another
+	 * user. The fields were checked when the other user was created.
+	 * @param other user to copy
+	 */
+	protected User(User other) {
+		this.firstName = other.firstName;
+		this.lastName = other.lastName;
+		this.id = other.id;
+		this.emailLocal = other.emailLocal;
+		this.emailDomain = other.emailDomain;
+		this.password = other.password;
+		this.passwordBytes = other.passwordBytes;
+	}
+
 	/**
 	 * Gets user's first name
 	 * @return firstName of the User
@@ -62,7 +81,7 @@ public abstract class User {
 		if (firstName == null || firstName.length() == 0) {
 			throw new IllegalArgumentException();
 		}
-		this.firstName = firstName;
+		this.firstName = NamePool.share(firstName);
 	}
 
 	/**
@@ -81,7 +100,7 @@ public abstract class User {
 		if (lastName == null || lastName.length() == 0) {
 			throw new IllegalArgumentException();
 		}
-		this.lastName = lastName;
+		this.lastName = NamePool.share(lastName);
 	}
 
 	/**
@@ -109,11 +128,30 @@ public abstract class User {
 	 * @return the email
 	 */
 	public String getEmail() {
-		return email;
+		return getEmailLocal() + "@" + emailDomain;
+	}
+
+	/**
+	 * Gets the part of the user's email before the first @, without building
+	 * the whole email.
+	 * @return the email's local part
+	 */
+	public String getEmailLocal() {
+		return emailLocal == null ? id : emailLocal;
+	}
+
+	/**
+	 * Gets the part of the user's email after the first @.
+	 * @return the email's domain
+	 */
+	public String getEmailDomain() {
+		return emailDomain;
 	}
 
 	/**
-	 * Sets the user's email to the given string.
+	 * Sets the user's email to the given string. The email is kept in two
+	 * parts split at the first @. The part before it isn't kept when it is
+	 * the same as the id, and the domain is shared with other users.
 	 * 
 	 * @param email
 	 *            new email for the user
@@ -128,7 +166,9 @@ public abstract class User {
 		if (atIdx == -1 || dotIdx == -1 || dotIdx <= atIdx) {
 			throw new IllegalArgumentException();
 		}
-		this.email = email;
+		String local = email.substring(0, atIdx);
+		this.emailLocal = local.equals(id) ? null : local;
+		this.emailDomain = NamePool.share(email.substring(atIdx + 1));
 	}
 
 	/**
@@ -155,6 +195,31 @@ public abstract class User {
 			throw new IllegalArgumentException();
 		}
 		this.password = password;
+		this.passwordBytes = null;
+	}
+
+	/**
+	 * Checks whether the hashed password, encoded in the default charset,
+	 * equals the first length bytes of the given array. Every byte is
+	 * compared whether or not an earlier one differed, so the time taken
+	 * doesn't tell a caller how much of a guess was right. The encoded
+	 * hash is only kept once the user has tried to log in, so users who
+	 * never log in don't hold it.
+	 * @param hash encoded hash to compare with
+	 * @param length number of bytes of hash to compare
+	 * @return true if the hashes are equal
+	 */
+	public boolean hasPasswordHash(byte[] hash, int length) {
+		byte[] expected = passwordBytes;
+		if (expected == null) {
+			expected = password.getBytes();
+			passwordBytes = expected;
+		}
+		int diff = expected.length ^ length;
+		for (int i = 0; i < expected.length; i++) {
+			diff |= expected[i] ^ (i < length ? hash[i] : 0);
+		}
+		return diff == 0;
 	}
 
 	/* (non-Javadoc)
@@ -164,7 +229,10 @@ public abstract class User {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((email == null) ? 0 : email.hashCode());
+		result = prime * result
+				+ ((emailLocal == null) ? 0 : emailLocal.hashCode());
+		result = prime * result
+				+ ((emailDomain == null) ? 0 : emailDomain.hashCode());
 		result = prime * result
 				+ ((firstName == null) ? 0 : firstName.hashCode());
 		result = prime * result + ((id == null) ? 0 : id.hashCode());
@@ -187,10 +255,15 @@ public abstract class User {
 		if (getClass() != obj.getClass())
 			return false;
 		User other = (User) obj;
-		if (email == null) {
-			if (other.email != null)
+		if (emailLocal == null) {
+			if (other.emailLocal != null)
+				return false;
+		} else if (!emailLocal.equals(other.emailLocal))
+			return false;
+		if (emailDomain == null) {
+			if (other.emailDomain != null)
 				return false;
-		} else if (!email.equals(other.email))
+		} else if (!emailDomain.equals(other.emailDomain))
 			return false;
 		if (firstName == null) {
 			if (other.firstName != null)
@@ -216,7 +289,7 @@ public abstract class User {
 	}
 	@Override
 	public String toString() {
-		return firstName + "," + lastName + "," + id + "," + email + "," + password;
+		return firstName + "," + lastName + "," + id + "," + getEmail() + "," + password;
 	}
 	/**
 	 * Returns true if the student can add the course to their schedule.
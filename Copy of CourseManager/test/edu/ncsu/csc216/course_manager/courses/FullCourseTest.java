@@ -4,6 +4,9 @@
 package edu.ncsu.csc216.course_manager.courses;
 import static org.junit.Assert.*;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import edu.ncsu.csc216.course_manager.courses.Course;
@@ -51,6 +54,59 @@ public class FullCourseTest {
 		assertEquals(0, c.getEnrolledStudents().length);
 	}
 	
+	/**
+	 * Tests that the credits can't change while a student is enrolled, so
+	 * the student's credit total stays right.
+	 */
+	@Test
+	public void testSetCreditsEnrolled() {
+		Course c = new Course("CSC216", 3, 10);
+		Student s1 = new Student("first", "last", "flast", "first_last@ncsu.edu", "pw");
+		assertTrue(c.enroll(s1));
+		assertTrue(s1.addCourse(c));
+		try {
+			c.setCredits(4);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(3, c.getCredits());
+		}
+		c.setCredits(3);
+		assertEquals(3, s1.getCurrentCredits());
+		
+		assertTrue(s1.removeCourse(c));
+		assertTrue(c.drop(s1));
+		assertEquals(0, s1.getCurrentCredits());
+		c.setCredits(4);
+		assertEquals(4, c.getCredits());
+	}
+	
+	/**
+	 * Tests that the roster keeps enrollment order across drops and
+	 * identifies students by id.
+	 */
+	@Test
+	public void testEnrollmentOrder() {
+		Course c = new Course("CSC216", 3, 3);
+		Student s1 = new Student("first", "last", "flast1", "first_last@ncsu.edu", "pw");
+		Student s2 = new Student("first", "last", "flast2", "first_last@ncsu.edu", "pw");
+		Student s3 = new Student("first", "last", "flast3", "first_last@ncsu.edu", "pw");
+		assertTrue(c.enroll(s1));
+		assertTrue(c.enroll(s2));
+		assertTrue(c.enroll(s3));
+		assertArrayEquals(new Student[] {s1, s2, s3}, c.getEnrolledStudents());
+		
+		//Drop and re-enroll moves the student to the end of the roster
+		assertTrue(c.drop(s1));
+		assertTrue(c.enroll(s1));
+		assertArrayEquals(new Student[] {s2, s3, s1}, c.getEnrolledStudents());
+		
+		//A student with the same id is the same student on the roster
+		Student s2Copy = new Student("other", "name", "flast2", "other@ncsu.edu", "pw2");
+		assertFalse(c.canEnroll(s2Copy));
+		assertTrue(c.drop(s2Copy));
+		assertArrayEquals(new Student[] {s3, s1}, c.getEnrolledStudents());
+	}
+	
 	/**
 	 * Test changing the capacity when considering enrollments.
 	 */
@@ -107,4 +163,82 @@ public class FullCourseTest {
 		Course c1 = new Course("CSC216", 3, 3);
 		assertEquals("CSC216,3,3", c1.toString());
 	}
+
+	/**
+	 * Tests reserveSeat(), commitSeat() and releaseSeat().
+	 */
+	@Test
+	public void testSeatReservation() {
+		Course c = new Course("CSC216", 3, 2);
+		Student s1 = new Student("first", "last", "flast", "first_last@ncsu.edu", "pw");
+		assertTrue(c.reserveSeat());
+		assertTrue(c.reserveSeat());
+		assertFalse(c.reserveSeat());
+		assertEquals(2, c.getSeatsTaken());
+		assertEquals(0, c.getEnrolledStudents().length);
+
+		//A reserved seat can't be taken by a capacity change
+		try {
+			c.setCapacity(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(2, c.getCapacity());
+		}
+
+		assertTrue(c.commitSeat(s1));
+		c.releaseSeat();
+		assertEquals(1, c.getSeatsTaken());
+		assertEquals(1, c.getEnrolledStudents().length);
+
+		//Committing a student twice gives the seat back
+		assertTrue(c.reserveSeat());
+		assertFalse(c.commitSeat(s1));
+		assertEquals(1, c.getSeatsTaken());
+
+		assertTrue(c.drop(s1));
+		assertEquals(0, c.getSeatsTaken());
+		try {
+			c.releaseSeat();
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(0, c.getSeatsTaken());
+		}
+	}
+
+	/**
+	 * Tests that many threads reserving seats at once never take more than
+	 * the capacity.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test
+	public void testConcurrentReservation() throws InterruptedException {
+		final Course c = new Course("CSC216", 3, 50);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger reserved = new AtomicInteger();
+		Thread [] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < 1000; j++) {
+						if (c.reserveSeat()) {
+							reserved.incrementAndGet();
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(50, reserved.get());
+		assertEquals(50, c.getSeatsTaken());
+	}
 }
@@ -0,0 +1,125 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+
+/**
+ * Tests the BinaryCourseRecordIO class.
+ * @author Andrew Northrup
+ */
+public class BinaryCourseRecordIOTest {
+	/** Text course records */
+	private final String textFile = "test-files/expected_full_course_records.txt";
+	/** Binary course records */
+	private Path path;
+
+	/**
+	 * Creates a file for the binary records.
+	 * @throws IOException if the file can't be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		path = Files.createTempFile("course_records", ".bin");
+	}
+
+	/**
+	 * Deletes the binary records.
+	 * @throws IOException if the file can't be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests that courses written in the binary format read back the same and
+	 * take less space than the text format.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<Course> courses = CourseRecordIO.readCourseRecords(textFile);
+		BinaryCourseRecordIO.writeCourseRecords(path.toString(), courses);
+		List<Course> read = BinaryCourseRecordIO.readCourseRecords(path.toString());
+		assertEquals(courses.size(), read.size());
+		for (int i = 0; i < courses.size(); i++) {
+			assertEquals(courses.get(i).toString(), read.get(i).toString());
+		}
+		assertTrue(Files.size(path) < new File(textFile).length());
+
+		//A course with invalid fields is skipped
+		BinaryRecordWriter out = new BinaryRecordWriter(new FileOutputStream(path.toFile()));
+		try {
+			out.writeHeader(BinaryRecordWriter.COURSES);
+			out.writeVarint(2);
+			out.writeString("CSC116");
+			out.writeVarint(Course.MAX_HOURS + 1);
+			out.writeVarint(10);
+			out.writeString("CSC216");
+			out.writeVarint(3);
+			out.writeVarint(10);
+		} finally {
+			out.close();
+		}
+		read = BinaryCourseRecordIO.readCourseRecords(path.toString());
+		assertEquals(1, read.size());
+		assertEquals("CSC216,3,10", read.get(0).toString());
+	}
+
+	/**
+	 * Tests reading files that aren't binary course records.
+	 * @throws IOException if the records can't be written
+	 */
+	@Test
+	public void testInvalidFile() throws IOException {
+		assertUnreadable(textFile);
+
+		BinaryCourseRecordIO.writeCourseRecords(path.toString(), CourseRecordIO.readCourseRecords(textFile));
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+		assertUnreadable(path.toString());
+
+		//Same header, different kind of record
+		bytes[3] = BinaryRecordWriter.STUDENTS;
+		Files.write(path, bytes);
+		assertUnreadable(path.toString());
+
+		try {
+			BinaryCourseRecordIO.readCourseRecords("test-files/no_such_file.bin");
+			fail();
+		} catch (FileNotFoundException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Checks that reading the given file throws an IllegalArgumentException.
+	 * @param fileName file to read
+	 * @throws FileNotFoundException if the file doesn't exist
+	 */
+	private void assertUnreadable(String fileName) throws FileNotFoundException {
+		try {
+			BinaryCourseRecordIO.readCourseRecords(fileName);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Tests the BinaryStudentRecordIO class.
+ * @author Andrew Northrup
+ */
+public class BinaryStudentRecordIOTest {
+	/** Text student records */
+	private final String textFile = "test-files/expected_full_student_records.txt";
+	/** Binary student records */
+	private Path path;
+	/** Manager the students are enrolled through */
+	private CourseManager manager;
+
+	/**
+	 * Creates a file for the binary records and adds the courses the
+	 * students take.
+	 * @throws IOException if the file can't be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		path = Files.createTempFile("student_records", ".bin");
+		manager = CourseManager.getInstance();
+		addCourses();
+	}
+
+	/**
+	 * Deletes the binary records.
+	 * @throws IOException if the file can't be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+		manager.clearData();
+	}
+
+	/**
+	 * Clears the manager and adds new, empty courses to it.
+	 */
+	private void addCourses() {
+		manager.clearData();
+		String [] names = {"CSC116", "CSC216", "CSC226", "CSC230", "CSC236", "CSC246", "CSC316", "CSC379"};
+		for (int i = 0; i < names.length; i++) {
+			manager.addCourse(new Course(names[i], i == names.length - 1 ? 1 : 3, 10));
+		}
+	}
+
+	/**
+	 * Tests that students written in the binary format read back the same,
+	 * are enrolled in the same courses and take less space than the text
+	 * format.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<Student> students = StudentRecordIO.readStudentRecords(textFile);
+		assertEquals(10, students.size());
+		BinaryStudentRecordIO.writeStudentRecords(path.toString(), students);
+
+		addCourses();
+		List<Student> read = BinaryStudentRecordIO.readStudentRecords(path.toString());
+		assertEquals(students.size(), read.size());
+		for (int i = 0; i < students.size(); i++) {
+			Student s = students.get(i);
+			Student r = read.get(i);
+			assertEquals(s.getFirstName(), r.getFirstName());
+			assertEquals(s.getLastName(), r.getLastName());
+			assertEquals(s.getId(), r.getId());
+			assertEquals(s.getEmail(), r.getEmail());
+			assertEquals(s.getMaxCredits(), r.getMaxCredits());
+			//The password reads back as it would from a text file
+			assertEquals(new String(s.getPassword().getBytes()), r.getPassword());
+			assertEquals(s.getCourses().length, r.getCourses().length);
+			Course [] courses = read.get(i).getCourses();
+			for (int j = 0; j < courses.length; j++) {
+				assertSame(manager.getCourseByName(courses[j].getName()), courses[j]);
+				assertTrue(Arrays.asList(courses[j].getEnrolledStudents()).contains(read.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * Tests that generated records take less space in the binary format and
+	 * read back the same students as the text format.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testGeneratedRecords() throws IOException {
+		Path courseFile = Files.createTempFile("course_records", ".txt");
+		Path studentFile = Files.createTempFile("student_records", ".txt");
+		try {
+			RecordGenerator generator = new RecordGenerator(216L);
+			generator.setCourseCount(50);
+			generator.setStudentCount(500);
+			generator.setCoursesPerStudent(2, 6);
+			generator.writeCourseRecords(courseFile.toString());
+			generator.writeStudentRecords(studentFile.toString());
+
+			manager.clearData();
+			for (Course c : CourseRecordIO.readCourseRecords(courseFile.toString())) {
+				manager.addCourse(c);
+			}
+			List<Student> students = StudentRecordIO.readStudentRecords(studentFile.toString());
+			assertEquals(500, students.size());
+			StudentRecordIO.writeStudentRecords(studentFile.toString(), students);
+			BinaryStudentRecordIO.writeStudentRecords(path.toString(), students);
+			assertTrue(Files.size(path) < Files.size(studentFile));
+
+			manager.clearData();
+			for (Course c : CourseRecordIO.readCourseRecords(courseFile.toString())) {
+				manager.addCourse(c);
+			}
+			List<Student> text = StudentRecordIO.readStudentRecords(studentFile.toString());
+			manager.clearData();
+			for (Course c : CourseRecordIO.readCourseRecords(courseFile.toString())) {
+				manager.addCourse(c);
+			}
+			List<Student> binary = BinaryStudentRecordIO.readStudentRecords(path.toString());
+			assertEquals(text.size(), binary.size());
+			for (int i = 0; i < text.size(); i++) {
+				assertEquals(text.get(i).toString(), binary.get(i).toString());
+			}
+		} finally {
+			Files.deleteIfExists(courseFile);
+			Files.deleteIfExists(studentFile);
+		}
+	}
+
+	/**
+	 * Tests that a student whose courses can't all be added is skipped and
+	 * left on no roster.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testMissingCourse() throws IOException {
+		List<Student> students = StudentRecordIO.readStudentRecords(textFile);
+		BinaryStudentRecordIO.writeStudentRecords(path.toString(), students);
+
+		manager.clearData();
+		manager.addCourse(new Course("CSC116", 3, 10));
+		manager.addCourse(new Course("CSC216", 3, 10));
+		List<Student> read = BinaryStudentRecordIO.readStudentRecords(path.toString());
+		List<String> ids = new ArrayList<String>();
+		for (Student s : read) {
+			ids.add(s.getId());
+		}
+		for (Student s : students) {
+			boolean kept = true;
+			for (Course c : s.getCourses()) {
+				kept &= c.getName().equals("CSC116") || c.getName().equals("CSC216");
+			}
+			assertEquals(kept, ids.contains(s.getId()));
+		}
+		for (Student s : manager.getCourseByName("CSC216").getEnrolledStudents()) {
+			assertTrue(read.contains(s));
+		}
+	}
+
+	/**
+	 * Tests reading files that aren't binary student records.
+	 * @throws IOException if the records can't be written
+	 */
+	@Test
+	public void testInvalidFile() throws IOException {
+		try {
+			BinaryStudentRecordIO.readStudentRecords(textFile);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		BinaryCourseRecordIO.writeCourseRecords(path.toString(), Arrays.asList(manager.listAllCourses()));
+		try {
+			BinaryStudentRecordIO.readStudentRecords(path.toString());
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Tests that a file that ends part way through a student leaves no
+	 * student on any roster.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testTruncatedFile() throws IOException {
+		List<Student> students = StudentRecordIO.readStudentRecords(textFile);
+		BinaryStudentRecordIO.writeStudentRecords(path.toString(), students);
+		byte [] whole = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(whole, whole.length - 5));
+
+		addCourses();
+		try {
+			BinaryStudentRecordIO.readStudentRecords(path.toString());
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		for (Course c : manager.listAllCourses()) {
+			assertEquals(c.getName(), 0, c.getEnrolledStudents().length);
+			assertEquals(c.getName(), 0, c.getSeatsTaken());
+		}
+	}
+}
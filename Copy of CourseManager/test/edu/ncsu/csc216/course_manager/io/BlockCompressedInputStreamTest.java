@@ -0,0 +1,202 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the BlockCompressedInputStream and BlockCompressedOutputStream
+ * classes.
+ * @author Andrew Northrup
+ */
+public class BlockCompressedInputStreamTest {
+	/** Block size small enough to cut the test data into many blocks */
+	private static final int BLOCK_SIZE = 100;
+	/** Compressed file */
+	private Path path;
+	/** Data written to the file */
+	private byte[] data;
+
+	/**
+	 * Creates the file and some compressible data spanning many blocks.
+	 * @throws IOException if the file can't be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		path = Files.createTempFile("records", ".cmz");
+		Random random = new Random(216);
+		data = new byte[BLOCK_SIZE * 40 + 37];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) ('a' + random.nextInt(4));
+		}
+	}
+
+	/**
+	 * Deletes the file.
+	 * @throws IOException if the file can't be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Writes the data to the file, mixing single bytes and ranges.
+	 * @throws IOException if the file can't be written
+	 */
+	private void write() throws IOException {
+		BlockCompressedOutputStream out = new BlockCompressedOutputStream(
+				new FileOutputStream(path.toFile()), BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+		try {
+			out.write(data[0]);
+			out.write(data, 1, 250);
+			out.write(data, 251, data.length - 251);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the rest of a stream.
+	 * @param in stream to read
+	 * @return bytes read
+	 * @throws IOException if the stream can't be read
+	 */
+	private static byte[] readAll(BlockCompressedInputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[64];
+		int n;
+		while ((n = in.read(buffer, 0, buffer.length)) != -1) {
+			bytes.write(buffer, 0, n);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Tests that every block reads back in order and the file is smaller.
+	 * @throws IOException if the file can't be read or written
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		write();
+		assertTrue(Files.size(path) < data.length);
+		BlockCompressedInputStream in = new BlockCompressedInputStream(path.toString());
+		try {
+			assertEquals(41, in.getBlockCount());
+			assertEquals(data.length, in.length());
+			assertEquals(data[0] & 0xff, in.read());
+			byte[] rest = readAll(in);
+			assertArrayEquals(Arrays.copyOfRange(data, 1, data.length), rest);
+			assertEquals(-1, in.read());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Tests an empty file.
+	 * @throws IOException if the file can't be read or written
+	 */
+	@Test
+	public void testEmpty() throws IOException {
+		new BlockCompressedOutputStream(path.toString()).close();
+		BlockCompressedInputStream in = new BlockCompressedInputStream(path.toString());
+		try {
+			assertEquals(0, in.getBlockCount());
+			assertEquals(-1, in.read());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Tests seeking to positions inside, at the start of and past blocks.
+	 * @throws IOException if the file can't be read or written
+	 */
+	@Test
+	public void testSeek() throws IOException {
+		write();
+		BlockCompressedInputStream in = new BlockCompressedInputStream(path.toString());
+		try {
+			int[] positions = {3050, 0, BLOCK_SIZE * 7, BLOCK_SIZE * 40 + 36, 1};
+			for (int p : positions) {
+				in.seek(p);
+				assertArrayEquals(Arrays.copyOfRange(data, p, data.length), readAll(in));
+			}
+			in.seek(data.length);
+			assertEquals(-1, in.read());
+			try {
+				in.seek(data.length + 1);
+				fail();
+			} catch (IOException e) {
+				//Past the end of the file
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Tests that a file that isn't block compressed, a truncated file and a
+	 * corrupt block are reported.
+	 * @throws IOException if the file can't be written
+	 */
+	@Test
+	public void testBadFile() throws IOException {
+		Files.write(path, "CSC216,3,10\n".getBytes());
+		try {
+			new BlockCompressedInputStream(path.toString()).close();
+			fail();
+		} catch (IOException e) {
+			//Not a block compressed file
+		}
+
+		write();
+		RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+		try {
+			file.setLength(file.length() - 1);
+		} finally {
+			file.close();
+		}
+		try {
+			new BlockCompressedInputStream(path.toString()).close();
+			fail();
+		} catch (IOException e) {
+			//Footer cut off
+		}
+
+		write();
+		file = new RandomAccessFile(path.toFile(), "rw");
+		try {
+			//Overwrite the middle of the first block
+			file.seek(BlockCompressedOutputStream.MAGIC.length + 10);
+			file.write(new byte[20]);
+		} finally {
+			file.close();
+		}
+		BlockCompressedInputStream in = new BlockCompressedInputStream(path.toString());
+		try {
+			readAll(in);
+			fail();
+		} catch (IOException e) {
+			//First block is corrupt
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the EnrollmentLog class.
+ * @author Andrew Northrup
+ */
+public class EnrollmentLogTest {
+	/** Log file */
+	private Path path;
+
+	/**
+	 * Creates an empty log file.
+	 * @throws IOException if the file can't be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		path = Files.createTempFile("enrollment", ".log");
+	}
+
+	/**
+	 * Deletes the log file.
+	 * @throws IOException if the file can't be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Tests appending, syncing and replaying entries.
+	 * @throws IOException if the log can't be used
+	 */
+	@Test
+	public void testAppendReplay() throws IOException {
+		EnrollmentLog log = new EnrollmentLog(path.toString());
+		long first = log.append(EnrollmentLog.ADD, "zking", "CSC216");
+		long second = log.append(EnrollmentLog.DROP, "zking", "CSC226");
+		assertTrue(second > first);
+		assertEquals(0, Files.size(path));
+		log.sync(first);
+		assertEquals("A,zking,CSC216\nD,zking,CSC226\n", new String(Files.readAllBytes(path)));
+		log.sync(second);
+		log.append(EnrollmentLog.ADD, "ahicks", "CSC116");
+		log.close();
+
+		assertEquals(list("A,zking,CSC216", "D,zking,CSC226", "A,ahicks,CSC116"), replay());
+		try {
+			log.append('X', "zking", "CSC216");
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		assertEquals(0, EnrollmentLog.replay(path.toString() + ".missing", null));
+	}
+
+	/**
+	 * Tests that a partial last entry is skipped and cut off when the log is
+	 * opened again, and that malformed entries are ignored.
+	 * @throws IOException if the log can't be used
+	 */
+	@Test
+	public void testTornEntry() throws IOException {
+		Files.write(path, "A,zking,CSC216\nX,zking,CSC216\nA,zking\nD,zki".getBytes());
+		assertEquals(list("A,zking,CSC216"), replay());
+
+		EnrollmentLog log = new EnrollmentLog(path.toString());
+		log.sync(log.append(EnrollmentLog.DROP, "zking", "CSC216"));
+		log.close();
+		assertEquals(list("A,zking,CSC216", "D,zking,CSC216"), replay());
+	}
+
+	/**
+	 * Tests that truncate() keeps only the entries after the position.
+	 * @throws IOException if the log can't be used
+	 */
+	@Test
+	public void testTruncate() throws IOException {
+		EnrollmentLog log = new EnrollmentLog(path.toString());
+		log.sync(log.append(EnrollmentLog.ADD, "zking", "CSC216"));
+		long mark = log.position();
+		log.append(EnrollmentLog.ADD, "ahicks", "CSC116");
+		log.truncate(mark);
+		assertEquals(list("A,ahicks,CSC116"), replay());
+
+		//Positions keep counting after a truncate
+		long next = log.append(EnrollmentLog.DROP, "ahicks", "CSC116");
+		assertTrue(next > mark);
+		log.sync(next);
+		log.truncate(mark);
+		assertEquals(list("A,ahicks,CSC116", "D,ahicks,CSC116"), replay());
+		log.truncate(next);
+		assertTrue(replay().isEmpty());
+		try {
+			log.truncate(mark);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Entries before the last truncate are gone
+		}
+		log.close();
+	}
+
+	/**
+	 * Tests that a failed write fails the log for good, and that the failed
+	 * entries never reach the file.
+	 * @throws IOException if the log can't be used
+	 */
+	@Test
+	public void testFailedWrite() throws IOException {
+		EnrollmentLog log = new EnrollmentLog(path.toString());
+		log.sync(log.append(EnrollmentLog.ADD, "zking", "CSC216"));
+		//Writes to a closed log fail
+		log.close();
+		long lost = log.append(EnrollmentLog.DROP, "zking", "CSC216");
+		try {
+			log.sync(lost);
+			fail();
+		} catch (IOException e) {
+			//Expected
+		}
+		try {
+			log.sync(log.append(EnrollmentLog.ADD, "ahicks", "CSC116"));
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("Log failed"));
+		}
+		try {
+			log.truncate(lost);
+			fail();
+		} catch (IOException e) {
+			//Expected
+		}
+		assertEquals(list("A,zking,CSC216"), replay());
+	}
+
+	/**
+	 * Tests that many threads syncing at once all reach the disk.
+	 * @throws Exception if the log can't be used
+	 */
+	@Test
+	public void testGroupCommit() throws Exception {
+		final EnrollmentLog log = new EnrollmentLog(path.toString());
+		Thread [] threads = new Thread[8];
+		final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+		for (int i = 0; i < threads.length; i++) {
+			final String id = "student" + i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 200; j++) {
+							log.sync(log.append(EnrollmentLog.ADD, id, "CSC" + j));
+						}
+					} catch (IOException e) {
+						errors.add(e);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertTrue(errors.isEmpty());
+		log.close();
+		List<String> entries = replay();
+		assertEquals(1600, entries.size());
+		assertEquals(1600, Files.readAllLines(path).size());
+		//Each thread's entries are in its own order
+		int last = -1;
+		for (String entry : entries) {
+			if (entry.startsWith("A,student3,")) {
+				int course = Integer.parseInt(entry.substring("A,student3,CSC".length()));
+				assertEquals(last + 1, course);
+				last = course;
+			}
+		}
+		Files.write(path, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Returns the entries of the log file.
+	 * @return each entry as op,id,course
+	 * @throws IOException if the log can't be read
+	 */
+	private List<String> replay() throws IOException {
+		final List<String> entries = new ArrayList<String>();
+		EnrollmentLog.replay(path.toString(), new EnrollmentLog.Handler() {
+			@Override
+			public void handle(char op, String id, String courseName) {
+				entries.add(op + "," + id + "," + courseName);
+			}
+		});
+		return entries;
+	}
+
+	/**
+	 * Returns the given entries as a list.
+	 * @param entries entries
+	 * @return list of the entries
+	 */
+	private static List<String> list(String... entries) {
+		List<String> list = new ArrayList<String>();
+		Collections.addAll(list, entries);
+		return list;
+	}
+}
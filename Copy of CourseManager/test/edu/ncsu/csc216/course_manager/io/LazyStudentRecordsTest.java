@@ -0,0 +1,176 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Tests the LazyStudentRecords class.
+ * @author Andrew Northrup
+ */
+public class LazyStudentRecordsTest {
+	/** Student records with valid lines */
+	private final String validTestFile = "test-files/expected_full_student_records.txt";
+	/** Manager holding the courses */
+	private CourseManager manager;
+	/** Course with two seats */
+	private Course small;
+
+	/**
+	 * Adds the courses the students take.
+	 */
+	@Before
+	public void setUp() {
+		manager = CourseManager.getInstance();
+		manager.clearData();
+		String [] names = {"CSC116", "CSC216", "CSC226", "CSC230", "CSC236", "CSC246", "CSC316", "CSC379"};
+		for (int i = 0; i < names.length; i++) {
+			manager.addCourse(new Course(names[i], i == names.length - 1 ? 1 : 3, 10));
+		}
+		small = new Course("CSC492", 3, 2);
+		manager.addCourse(small);
+	}
+
+	/**
+	 * Clears the manager.
+	 */
+	@After
+	public void tearDown() {
+		manager.clearData();
+	}
+
+	/**
+	 * Tests that opening the file claims seats without creating students,
+	 * and that students are created one at a time by id.
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testHydrateById() throws IOException {
+		LazyStudentRecords lazy = new LazyStudentRecords(validTestFile);
+		assertEquals(10, lazy.size());
+		assertEquals(10, lazy.getPendingCount());
+		Course csc216 = manager.getCourseByName("CSC216");
+		assertEquals(7, csc216.getSeatsTaken());
+		assertEquals(7, lazy.getWaitingCourses().size());
+
+		Student zking = lazy.hydrate("zking");
+		assertEquals("zking", zking.getId());
+		assertEquals(15, zking.getMaxCredits());
+		assertEquals(2, zking.getCourses().length);
+		assertSame(csc216, zking.getCourses()[0]);
+		assertEquals(9, lazy.getPendingCount());
+		assertEquals(7, csc216.getSeatsTaken());
+		assertNull(lazy.hydrate("zking"));
+		assertNull(lazy.hydrate("nobody"));
+		assertNull(lazy.hydrate("zkin"));
+
+		List<Student> all = lazy.hydrateAll();
+		assertEquals(9, all.size());
+		assertEquals("cschwartz", all.get(0).getId());
+		assertEquals(0, lazy.getPendingCount());
+		assertEquals(7, csc216.getSeatsTaken());
+	}
+
+	/**
+	 * Tests creating the students waiting for one course.
+	 * @throws IOException if the file can't be read
+	 */
+	@Test
+	public void testHydrateCourse() throws IOException {
+		LazyStudentRecords lazy = new LazyStudentRecords(validTestFile);
+		Course csc116 = manager.getCourseByName("CSC116");
+		List<Student> loaded = lazy.hydrate(csc116);
+		String [] expected = {"cschwartz", "daustin", "rbrennan", "gstone", "ahicks"};
+		assertEquals(expected.length, loaded.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], loaded.get(i).getId());
+		}
+		assertEquals(5, lazy.getPendingCount());
+		assertTrue(lazy.hydrate(csc116).isEmpty());
+		assertFalse(lazy.getWaitingCourses().contains(csc116));
+	}
+
+	/**
+	 * Tests that lines that can't be loaded are skipped when indexed, or
+	 * give their seats back when parsed.
+	 * @throws IOException if the file can't be written or read
+	 */
+	@Test
+	public void testInvalidLines() throws IOException {
+		Path path = Files.createTempFile("student_records", ".txt");
+		try {
+			Files.write(path, ("Ann,Lee,alee,alee@ncsu.edu,pw,9,CSC492\n"
+					+ "Bob,Ray,bray,no-email,pw,9,CSC492,CSC216\n"
+					+ "Ann,Lee,alee,alee@ncsu.edu,pw,9,CSC216\n"
+					+ "Cal,Fox,cfox,cfox@ncsu.edu,pw,3,CSC216,CSC226\n"
+					+ "Dee,Orr,dorr,dorr@ncsu.edu,pw,9,CSC999\n"
+					+ "Eve,Kim,ekim,ekim@ncsu.edu,pw,9,CSC226,CSC492\n"
+					+ "Fay,Ng,fng,fng@ncsu.edu,pw,9,CSC492\n"
+					+ "short,line\n").getBytes());
+			LazyStudentRecords lazy = new LazyStudentRecords(path.toString());
+			//Only alee and bray are indexed: the duplicate id, too many
+			//credits, unknown course, full course and short lines are skipped
+			assertEquals(2, lazy.size());
+			assertEquals(2, small.getSeatsTaken());
+			assertEquals(1, manager.getCourseByName("CSC216").getSeatsTaken());
+			assertNull(lazy.hydrate("ekim"));
+
+			//bray's email is invalid, so its seats are given back
+			assertNull(lazy.hydrate("bray"));
+			assertEquals(1, small.getSeatsTaken());
+			assertEquals(0, manager.getCourseByName("CSC216").getSeatsTaken());
+			List<Student> loaded = lazy.hydrate(small);
+			assertEquals(1, loaded.size());
+			assertEquals("alee", loaded.get(0).getId());
+			assertEquals(1, small.getEnrolledStudents().length);
+			assertEquals(0, lazy.getPendingCount());
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * Tests that a line repeating the id of a line that fails when parsed is
+	 * kept, as it would be by a full load, and that a line repeating the id of
+	 * a valid line is not.
+	 * @throws IOException if the file can't be written or read
+	 */
+	@Test
+	public void testDuplicateIds() throws IOException {
+		Path path = Files.createTempFile("student_records", ".txt");
+		try {
+			Files.write(path, ("Gus,Day,gday,no-email,pw,9,CSC492,CSC226\n"
+					+ "Gus,Day,gday,gday@ncsu.edu,pw,9,CSC492\n"
+					+ "Gus,Day,gday,other@ncsu.edu,pw,9,CSC216\n").getBytes());
+			LazyStudentRecords lazy = new LazyStudentRecords(path.toString());
+			assertEquals(1, lazy.getPendingCount());
+			assertEquals(1, small.getSeatsTaken());
+			assertEquals(0, manager.getCourseByName("CSC226").getSeatsTaken());
+			assertEquals(0, manager.getCourseByName("CSC216").getSeatsTaken());
+
+			Student gday = lazy.hydrate("gday");
+			assertEquals("gday@ncsu.edu", gday.getEmail());
+			assertEquals(1, gday.getCourses().length);
+			assertSame(small, gday.getCourses()[0]);
+			assertEquals(1, small.getEnrolledStudents().length);
+			assertEquals(0, lazy.getPendingCount());
+			assertTrue(lazy.hydrateAll().isEmpty());
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Tests the RecordGenerator class.
+ * @author Andrew Northrup
+ */
+public class RecordGeneratorTest {
+	/** Generated course records file */
+	private Path courseFile;
+	/** Generated student records file */
+	private Path studentFile;
+	/** Manager the generated files are loaded into */
+	private CourseManager manager;
+
+	/**
+	 * Creates temporary files for the generated records and clears the manager.
+	 * @throws IOException if the files cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		courseFile = Files.createTempFile("course_records", ".txt");
+		studentFile = Files.createTempFile("student_records", ".txt");
+		manager = CourseManager.getInstance();
+		manager.clearData();
+	}
+
+	/**
+	 * Deletes the temporary files.
+	 * @throws IOException if the files cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		manager.clearData();
+		Files.deleteIfExists(courseFile);
+		Files.deleteIfExists(studentFile);
+	}
+
+	/**
+	 * Tests that every generated record loads and every student can log in.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testGeneratedRecordsLoad() throws IOException {
+		RecordGenerator generator = new RecordGenerator(42);
+		generator.setCourseCount(50);
+		generator.setStudentCount(500);
+		generator.setCoursesPerStudent(1, 6);
+		generator.setPopularitySkew(1.5);
+		generator.setCapacitySlack(0);
+		generator.setNameLength(2, 20);
+		generator.setMinFreeCredits(2);
+		generator.writeCourseRecords(courseFile.toString());
+		generator.writeStudentRecords(studentFile.toString());
+
+		List<Course> courses = CourseRecordIO.readCourseRecords(courseFile.toString());
+		assertEquals(50, courses.size());
+		assertEquals(RecordGenerator.courseName(0), courses.get(0).getName());
+
+		manager.loadCourses(courseFile.toString());
+		manager.loadStudents(studentFile.toString());
+		assertEquals(500, Files.readAllLines(studentFile, StandardCharsets.ISO_8859_1).size());
+
+		int enrolled = 0;
+		boolean full = false;
+		for (Course c : manager.listAllCourses()) {
+			enrolled += c.getEnrolledStudents().length;
+			full |= c.getEnrolledStudents().length == c.getCapacity();
+		}
+		assertTrue(enrolled >= 500);
+		assertTrue(full);
+
+		for (int i = 0; i < 500; i += 37) {
+			assertTrue(manager.login(RecordGenerator.studentId(i), generator.getPassword()));
+			Student s = (Student) manager.getCurrentUser();
+			assertTrue(s.getCurrentCredits() + 2 <= s.getMaxCredits());
+			manager.logout();
+		}
+		assertFalse(manager.login(RecordGenerator.studentId(0), "wrong"));
+	}
+
+	/**
+	 * Tests that the same seed gives the same files and a different seed
+	 * doesn't.
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testDeterministic() throws IOException {
+		RecordGenerator generator = new RecordGenerator(7);
+		generator.writeCourseRecords(courseFile.toString());
+		generator.writeStudentRecords(studentFile.toString());
+		byte [] courses = Files.readAllBytes(courseFile);
+		byte [] students = Files.readAllBytes(studentFile);
+
+		RecordGenerator same = new RecordGenerator(7);
+		same.writeCourseRecords(courseFile.toString());
+		same.writeStudentRecords(studentFile.toString());
+		assertArrayEquals(courses, Files.readAllBytes(courseFile));
+		assertArrayEquals(students, Files.readAllBytes(studentFile));
+
+		RecordGenerator other = new RecordGenerator(8);
+		other.writeStudentRecords(studentFile.toString());
+		assertFalse(Arrays.equals(students, Files.readAllBytes(studentFile)));
+	}
+
+	/**
+	 * Tests invalid settings.
+	 */
+	@Test
+	public void testInvalidSettings() {
+		RecordGenerator generator = new RecordGenerator(1);
+		try {
+			generator.setCoursesPerStudent(3, 2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		try {
+			generator.setCreditWeights(1, 1, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		try {
+			generator.setNameLength(0, 4);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		try {
+			generator.setPassword("");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("pw", generator.getPassword());
+		}
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Tests the RecordStore implementations.
+ * @author Andrew Northrup
+ */
+public class RecordStoreTest {
+	/** Stores under test */
+	private final RecordStore [] stores = {new TextRecordStore(), new MappedRecordStore(), new BinaryRecordStore(),
+			new CompressedRecordStore()};
+	/** Course records */
+	private Path courseFile;
+	/** Student records */
+	private Path studentFile;
+	/** Manager the students are enrolled through */
+	private CourseManager manager;
+
+	/**
+	 * Creates the record files.
+	 * @throws IOException if the files can't be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		courseFile = Files.createTempFile("course_records", ".dat");
+		studentFile = Files.createTempFile("student_records", ".dat");
+		manager = CourseManager.getInstance();
+		manager.clearData();
+	}
+
+	/**
+	 * Deletes the record files.
+	 * @throws IOException if the files can't be deleted
+	 */
+	@After
+	public void tearDown() throws IOException {
+		manager.clearData();
+		Files.deleteIfExists(courseFile);
+		Files.deleteIfExists(studentFile);
+	}
+
+	/**
+	 * Tests that each store reads back the courses and students it wrote.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<Course> courses = CourseRecordIO.readCourseRecords("test-files/expected_full_course_records.txt");
+		for (Course c : courses) {
+			manager.addCourse(c);
+		}
+		List<Student> students = StudentRecordIO.readStudentRecords("test-files/expected_full_student_records.txt");
+
+		for (RecordStore store : stores) {
+			store.writeCourses(courseFile.toString(), courses);
+			store.replaceStudents(studentFile.toString(), students);
+			assertFalse(new File(studentFile.toString() + ".tmp").exists());
+			List<Course> readCourses = store.readCourses(courseFile.toString());
+			assertEquals(courses.size(), readCourses.size());
+			manager.clearData();
+			for (int i = 0; i < courses.size(); i++) {
+				assertEquals(courses.get(i).toString(), readCourses.get(i).toString());
+				manager.addCourse(readCourses.get(i));
+			}
+			List<Student> readStudents = store.readStudents(studentFile.toString());
+			assertEquals(students.size(), readStudents.size());
+			for (int i = 0; i < students.size(); i++) {
+				assertEquals(students.get(i).getId(), readStudents.get(i).getId());
+				assertEquals(students.get(i).getCourses().length, readStudents.get(i).getCourses().length);
+			}
+			//Students are enrolled in the courses of the manager
+			assertSame(manager.getCourseByName("CSC216"), readStudents.get(0).getCourses()[0]);
+			students = readStudents;
+			courses = readCourses;
+		}
+	}
+
+	/**
+	 * Listener that keeps the last progress reported.
+	 */
+	private static class LastProgress implements RecordStore.ProgressListener {
+		/** Bytes read in the last report */
+		private long bytesRead = -1;
+		/** Total bytes in the last report */
+		private long totalBytes = -1;
+
+		/**
+		 * Checks that the count never goes backwards and keeps the report.
+		 * @param read bytes read so far
+		 * @param total bytes in the whole file
+		 */
+		@Override
+		public void bytesRead(long read, long total) {
+			assertTrue(read >= bytesRead);
+			bytesRead = read;
+			totalBytes = total;
+		}
+	}
+
+	/**
+	 * Tests that each store reports reading the whole file.
+	 * @throws IOException if the records can't be read or written
+	 */
+	@Test
+	public void testReadWithProgress() throws IOException {
+		List<Course> courses = CourseRecordIO.readCourseRecords("test-files/expected_full_course_records.txt");
+		for (Course c : courses) {
+			manager.addCourse(c);
+		}
+		List<Student> students = StudentRecordIO.readStudentRecords("test-files/expected_full_student_records.txt");
+
+		for (RecordStore store : stores) {
+			store.writeCourses(courseFile.toString(), courses);
+			store.writeStudents(studentFile.toString(), students);
+			manager.clearData();
+			LastProgress progress = new LastProgress();
+			courses = store.readCourses(courseFile.toString(), progress);
+			assertTrue(progress.totalBytes > 0);
+			assertEquals(progress.totalBytes, progress.bytesRead);
+			for (Course c : courses) {
+				manager.addCourse(c);
+			}
+			progress = new LastProgress();
+			List<Student> read = store.readStudents(studentFile.toString(), progress);
+			assertEquals(students.size(), read.size());
+			assertTrue(progress.totalBytes > 0);
+			assertEquals(progress.totalBytes, progress.bytesRead);
+			students = read;
+		}
+	}
+
+	/**
+	 * Tests that interrupting a text or mapped read stops it and leaves no
+	 * student on any roster.
+	 * @throws IOException if the records can't be read
+	 */
+	@Test
+	public void testInterruptedRead() throws IOException {
+		for (Course c : CourseRecordIO.readCourseRecords("test-files/expected_full_course_records.txt")) {
+			manager.addCourse(c);
+		}
+		RecordStore [] streamed = {new TextRecordStore(), new MappedRecordStore()};
+		for (RecordStore store : streamed) {
+			String name = store.getClass().getSimpleName();
+			try {
+				store.readStudents("test-files/expected_full_student_records.txt", new RecordStore.ProgressListener() {
+					@Override
+					public void bytesRead(long read, long total) {
+						Thread.currentThread().interrupt();
+					}
+				});
+				fail(name);
+			} catch (IllegalArgumentException e) {
+				assertEquals(name, "Loading was cancelled", e.getMessage());
+			} finally {
+				assertTrue(name, Thread.interrupted());
+			}
+			for (Course c : manager.getCatalog()) {
+				assertEquals(name + " " + c.getName(), 0, c.getEnrolledStudents().length);
+			}
+		}
+	}
+}
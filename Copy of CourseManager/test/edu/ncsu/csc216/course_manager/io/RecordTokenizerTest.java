@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.io;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * Tests the RecordTokenizer class against the Scanner behavior it replaces.
+ * @author Andrew Northrup
+ */
+public class RecordTokenizerTest {
+	/** Lines with unusual delimiter placement */
+	private final String [] lines = {"CSC116,3,7", "a,,b", "a,b,", ",a,b", "a,b,,", "a,b,,c", " a, b", ""};
+
+	/**
+	 * Tests that fields are split the same way as a Scanner using a "," delimiter.
+	 */
+	@Test
+	public void testNextMatchesScanner() {
+		RecordTokenizer.Line tokenizer = new RecordTokenizer.Line();
+		for (int i = 0; i < lines.length; i++) {
+			Scanner scanner = new Scanner(lines[i]);
+			scanner.useDelimiter(",");
+			List<String> expected = new ArrayList<String>();
+			while (scanner.hasNext()) {
+				expected.add(scanner.next());
+			}
+			scanner.close();
+
+			List<String> actual = new ArrayList<String>();
+			tokenizer.reset(lines[i]);
+			while (tokenizer.hasNext()) {
+				actual.add(tokenizer.next());
+			}
+			assertEquals(lines[i], expected, actual);
+
+			try {
+				tokenizer.next();
+				fail();
+			} catch (NoSuchElementException e) {
+				assertFalse(tokenizer.hasNext());
+			}
+		}
+	}
+
+	/**
+	 * Tests nextInt() on valid and invalid numbers.
+	 */
+	@Test
+	public void testNextInt() {
+		RecordTokenizer.Line tokenizer = new RecordTokenizer.Line();
+		tokenizer.reset("CSC116,3,+10,-4,007,2147483647,-2147483648");
+		assertEquals("CSC116", tokenizer.next());
+		assertEquals(3, tokenizer.nextInt());
+		assertEquals(10, tokenizer.nextInt());
+		assertEquals(-4, tokenizer.nextInt());
+		assertEquals(7, tokenizer.nextInt());
+		assertEquals(Integer.MAX_VALUE, tokenizer.nextInt());
+		assertEquals(Integer.MIN_VALUE, tokenizer.nextInt());
+		assertFalse(tokenizer.hasNext());
+
+		String [] invalid = {"", "3 ", " 3", "+", "1x", "2147483648", "-2147483649", "1_000"};
+		for (int i = 0; i < invalid.length; i++) {
+			tokenizer.reset("a," + invalid[i] + ",b");
+			tokenizer.next();
+			try {
+				tokenizer.nextInt();
+				fail("Expected an InputMismatchException for " + invalid[i]);
+			} catch (InputMismatchException e) {
+				//A failed nextInt() leaves the field unread
+				assertEquals(invalid[i], tokenizer.next());
+			}
+		}
+	}
+}
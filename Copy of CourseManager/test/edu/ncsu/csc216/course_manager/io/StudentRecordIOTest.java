@@ -135,6 +135,205 @@ public class StudentRecordIOTest {
 		}
 	}
 	
+	/**
+	 * Test reading students with the memory-mapped reader.
+	 */
+	@Test
+	public void testReadStudentRecordsMapped() {
+		try {
+			List<Student> students = StudentRecordIO.readStudentRecordsMapped(validTestFile);
+			assertEquals(10, students.size());
+			
+			for (int i = 0; i < validStudents.length; i++) {
+				assertEquals(validStudents[i], students.get(i).toString());
+			}
+			
+			assertEquals(0, StudentRecordIO.readStudentRecordsMapped(invalidTestFile).size());
+		} catch (FileNotFoundException e) {
+			fail("Unexpected error reading " + validTestFile);
+		}
+		
+		try {
+			StudentRecordIO.readStudentRecordsMapped("test-files/no_such_file.txt");
+			fail();
+		} catch (FileNotFoundException e) {
+			//Expected
+		}
+	}
+	
+	/**
+	 * Test that the mapped reader handles every line terminator and lines that
+	 * cross the end of a mapping window.
+	 */
+	@Test
+	public void testReadStudentRecordsMappedWindows() {
+		String [] terminators = {"\n", "\r\n", "\r"};
+		try {
+			Path path = Files.createTempFile("student_records", ".txt");
+			for (int t = 0; t < terminators.length; t++) {
+				StringBuilder content = new StringBuilder();
+				int longest = 0;
+				for (int i = 0; i < validStudents.length; i++) {
+					content.append(validStudents[i]);
+					if (i < validStudents.length - 1) {
+						content.append(terminators[t]);
+					}
+					longest = Math.max(longest, validStudents[i].getBytes().length);
+				}
+				Files.write(path, content.toString().getBytes());
+				
+				setUp();
+				List<Student> expected = StudentRecordIO.readStudentRecords(path.toString());
+				for (int window = longest + 2; window < longest + 40; window += 7) {
+					setUp();
+					List<Student> actual = StudentRecordIO.readStudentRecordsMapped(
+							new MappedRecordReader(path.toString(), window));
+					assertEquals(expected.size(), actual.size());
+					for (int i = 0; i < expected.size(); i++) {
+						assertEquals(expected.get(i).toString(), actual.get(i).toString());
+					}
+				}
+			}
+			
+			try {
+				StudentRecordIO.readStudentRecordsMapped(new MappedRecordReader(path.toString(), 10));
+				fail();
+			} catch (IllegalArgumentException e) {
+				//Records longer than the window can't be read
+			}
+			Files.delete(path);
+		} catch (IOException e) {
+			fail("Unexpected error reading temporary file");
+		}
+	}
+	
+	/**
+	 * Test that parallel reading gives the same students and course rosters as
+	 * the serial reader, including lines that fail to link part way through.
+	 */
+	@Test
+	public void testReadStudentRecordsParallel() {
+		String [] courseNames = {"CSC116", "CSC216", "CSC226", "CSC230", "CSC236", "CSC246", "CSC316", "CSC379", "CSC999"};
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			content.append("First" + i + ",Last,id" + (i % 280) + ",f" + i + "@ncsu.edu,pw," + (i % 19));
+			for (int j = 0; j < i % 6; j++) {
+				content.append(",").append(courseNames[(i * 7 + j * 3) % courseNames.length]);
+			}
+			content.append(i % 3 == 0 ? "\r\n" : "\n");
+		}
+		try {
+			Path path = Files.createTempFile("student_records", ".txt");
+			Files.write(path, content.toString().getBytes());
+			
+			List<Student> expected = StudentRecordIO.readStudentRecords(path.toString());
+			String [] expectedRosters = rosters();
+			
+			long [] chunkSizes = {1, 64, 1000, 1 << 20};
+			for (int i = 0; i < chunkSizes.length; i++) {
+				setUp();
+				MappedRecordReader reader = new MappedRecordReader(path.toString());
+				List<Student> actual = StudentRecordIO.readStudentRecordsParallel(reader, chunkSizes[i]);
+				reader.close();
+				assertEquals(expected.size(), actual.size());
+				for (int j = 0; j < expected.size(); j++) {
+					assertEquals(expected.get(j).toString(), actual.get(j).toString());
+				}
+				assertArrayEquals(expectedRosters, rosters());
+			}
+			
+			setUp();
+			List<Student> students = StudentRecordIO.readStudentRecordsParallel(validTestFile);
+			assertEquals(10, students.size());
+			for (int i = 0; i < validStudents.length; i++) {
+				assertEquals(validStudents[i], students.get(i).toString());
+			}
+			Files.delete(path);
+		} catch (IOException e) {
+			fail("Unexpected error reading temporary file");
+		}
+	}
+	
+	/**
+	 * Test that the parallel reader reports each chunk and stops when the
+	 * thread is interrupted part way, leaving no student on any roster.
+	 */
+	@Test
+	public void testReadStudentRecordsParallelInterrupted() {
+		try {
+			MappedRecordReader reader = new MappedRecordReader(validTestFile);
+			final List<Long> progress = new ArrayList<Long>();
+			try {
+				StudentRecordIO.readStudentRecordsParallel(reader, 64, new RecordStore.ProgressListener() {
+					@Override
+					public void bytesRead(long read, long total) {
+						progress.add(read);
+						Thread.currentThread().interrupt();
+					}
+				});
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Loading was cancelled", e.getMessage());
+			} finally {
+				assertTrue(Thread.interrupted());
+				reader.close();
+			}
+			assertEquals(1, progress.size());
+			assertTrue(progress.get(0) < new File(validTestFile).length());
+			for (Course c : manager.listAllCourses()) {
+				assertEquals(c.getName(), 0, c.getEnrolledStudents().length);
+				assertEquals(c.getName(), 0, c.getSeatsTaken());
+			}
+		} catch (IOException e) {
+			fail("Unexpected error reading file");
+		}
+	}
+	
+	/**
+	 * Test that a line that can't be fully linked leaves no enrollments
+	 * behind.
+	 */
+	@Test
+	public void testReadStudentRecordsRollback() {
+		c1.setCapacity(1);
+		String content = "First,Last,first,f@ncsu.edu,pw,18,CSC216,CSC116\n"
+				+ "Second,Last,second,s@ncsu.edu,pw,18,CSC216,CSC116\n"
+				+ "Third,Last,third,t@ncsu.edu,pw,18,CSC226,CSC999\n";
+		try {
+			Path path = Files.createTempFile("student_records", ".txt");
+			Files.write(path, content.getBytes());
+			List<Student> students = StudentRecordIO.readStudentRecords(path.toString());
+			assertEquals(1, students.size());
+			assertEquals("first", students.get(0).getId());
+			assertEquals(1, c1.getEnrolledStudents().length);
+			assertEquals(1, c2.getEnrolledStudents().length);
+			assertEquals(1, c2.getSeatsTaken());
+			assertEquals(0, c3.getEnrolledStudents().length);
+			assertEquals(0, c3.getSeatsTaken());
+			Files.delete(path);
+		} catch (IOException e) {
+			fail("Unexpected error reading temporary file");
+		}
+	}
+	
+	/**
+	 * Returns the ids enrolled in each test course.
+	 * @return ids on each course's roster in enrollment order
+	 */
+	private String [] rosters() {
+		Course [] courses = manager.listAllCourses();
+		String [] rosters = new String[courses.length];
+		for (int i = 0; i < courses.length; i++) {
+			StringBuilder ids = new StringBuilder(courses[i].getName());
+			Student [] enrolled = courses[i].getEnrolledStudents();
+			for (int j = 0; j < enrolled.length; j++) {
+				ids.append(",").append(enrolled[j].getId());
+			}
+			rosters[i] = ids.toString();
+		}
+		return rosters;
+	}
+	
 	/**
 	 * Tests writeStudentRecords()
 	 */
@@ -152,6 +351,28 @@ public class StudentRecordIOTest {
 		checkFiles("test-files/expected_student_records.txt", "test-files/actual_student_records.txt");
 	}
 
+	/**
+	 * Tests that writeStudentRecords() writes exactly each student's toString()
+	 * followed by a line separator.
+	 */
+	@Test
+	public void testWriteStudentRecordsMatchesToString() {
+		try {
+			List<Student> students = StudentRecordIO.readStudentRecords(validTestFile);
+			Path actualPath = Files.createTempFile("student_records", ".txt");
+			StudentRecordIO.writeStudentRecords(actualPath.toString(), students);
+			
+			StringBuilder expected = new StringBuilder();
+			for (Student s : students) {
+				expected.append(s.toString()).append(System.lineSeparator());
+			}
+			byte [] actual = Files.readAllBytes(actualPath);
+			Files.delete(actualPath);
+			assertArrayEquals(expected.toString().getBytes(), actual);
+		} catch (IOException e) {
+			fail("Cannot write students to files");
+		}
+	}
 	
 	/**
 	 * Helper method to compare two files for the same contents
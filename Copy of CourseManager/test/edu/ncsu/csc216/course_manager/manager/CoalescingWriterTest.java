@@ -0,0 +1,109 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the CoalescingWriter class.
+ * @author Andrew Northrup
+ */
+public class CoalescingWriterTest {
+	/** Executor the writes run on */
+	private ExecutorService executor;
+
+	/**
+	 * Creates the executor.
+	 */
+	@Before
+	public void setUp() {
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	/**
+	 * Shuts the executor down.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Tests that requests made during a write share one following write.
+	 * @throws Exception if a write fails
+	 */
+	@Test
+	public void testCoalesce() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger writes = new AtomicInteger();
+		CoalescingWriter writer = new CoalescingWriter(executor, new Runnable() {
+			@Override
+			public void run() {
+				if (writes.incrementAndGet() == 1) {
+					started.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+
+		CompletableFuture<Void> first = writer.request();
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		CompletableFuture<Void> second = writer.request();
+		CompletableFuture<Void> third = writer.request();
+		assertNotSame(first, second);
+		assertSame(second, third);
+		assertFalse(first.isDone());
+
+		release.countDown();
+		first.get(10, TimeUnit.SECONDS);
+		third.get(10, TimeUnit.SECONDS);
+		assertEquals(2, writes.get());
+
+		writer.request().get(10, TimeUnit.SECONDS);
+		assertEquals(3, writes.get());
+	}
+
+	/**
+	 * Tests that a failed write completes the future exceptionally and later
+	 * requests still write.
+	 * @throws Exception if the second write fails
+	 */
+	@Test
+	public void testFailure() throws Exception {
+		final AtomicInteger writes = new AtomicInteger();
+		CoalescingWriter writer = new CoalescingWriter(executor, new Runnable() {
+			@Override
+			public void run() {
+				if (writes.incrementAndGet() == 1) {
+					throw new IllegalArgumentException("disk full");
+				}
+			}
+		});
+		try {
+			writer.request().get(10, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertEquals("disk full", e.getCause().getMessage());
+		}
+		writer.request().get(10, TimeUnit.SECONDS);
+		assertEquals(2, writes.get());
+	}
+}
@@ -11,14 +11,27 @@ import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import edu.ncsu.csc216.course_manager.courses.Course;
+import edu.ncsu.csc216.course_manager.io.BinaryCourseRecordIO;
+import edu.ncsu.csc216.course_manager.io.BinaryRecordStore;
+import edu.ncsu.csc216.course_manager.io.EnrollmentLog;
+import edu.ncsu.csc216.course_manager.io.TextRecordStore;
 import edu.ncsu.csc216.course_manager.manager.CourseManager;
 import edu.ncsu.csc216.course_manager.users.Student;
 
@@ -158,6 +171,11 @@ public class CourseManagerTest {
 		manager.addCourse(new Course("CSC116", 3, 3));
 		assertEquals(1, courses.length);
 		
+		//Attempt to add the same course with a different case
+		manager.addCourse(new Course("csc116", 3, 3));
+		assertEquals(1, manager.listAllCourses().length);
+		assertEquals(validCourses[0], manager.getCourseByName("CSC116").toString());
+		
 		for (int i = 0; i < courses.length; i++) {
 			assertEquals(validCourses[i], courses[i].toString());
 		}
@@ -185,6 +203,11 @@ public class CourseManagerTest {
 		assertEquals(c3, manager.getCourseByName("CSC316"));
 		assertEquals(c4, manager.getCourseByName("CSC326"));
 		assertNull(manager.getCourseByName("CSC226"));
+		
+		//Lookups ignore case
+		assertSame(c1, manager.getCourseByName("csc116"));
+		assertSame(c3, manager.getCourseByName("Csc316"));
+		assertNull(manager.getCourseByName(null));
 	}
 
 	/**
@@ -516,4 +539,573 @@ public class CourseManagerTest {
 			assertNull(manager.getCurrentUser());
 		}
 	}
+
+	/**
+	 * Tests loginSession() and logging out sessions.
+	 */
+	@Test
+	public void testLoginSession() {
+		manager.loadCourses("test-files/course_records.txt");
+		manager.loadStudents("test-files/student_records.txt");
+
+		assertNull(manager.loginSession("student", "pw"));
+		assertNull(manager.loginSession("zking", "pw1"));
+		assertNull(manager.loginSession(null, "pw"));
+
+		Session zking = manager.loginSession("zking", "pw");
+		Session lberg = manager.loginSession("lberg", "pw");
+		assertEquals("zking", zking.getUser().getId());
+		assertEquals("lberg", lberg.getUser().getId());
+		assertNull(manager.getCurrentUser());
+
+		//Sessions don't block the single user login
+		assertTrue(manager.login("gstone", "pw"));
+		assertEquals("gstone", manager.getCurrentUser().getId());
+
+		assertEquals(2, manager.listUserCourses(zking).length);
+		assertTrue(manager.addUserToCourse(lberg, manager.getCourseByName("CSC316")));
+		assertFalse(manager.addUserToCourse(zking, manager.getCourseByName("CSC316")));
+		assertTrue(manager.removeUserFromCourse(lberg, manager.getCourseByName("CSC316")));
+		assertTrue(manager.addUserToCourse(zking, manager.getCourseByName("CSC316")));
+
+		manager.logout(zking);
+		assertFalse(zking.isActive());
+		assertTrue(lberg.isActive());
+		try {
+			manager.listUserCourses(zking);
+			fail("IllegalArgumentException should be thrown for a logged out session");
+		} catch (IllegalArgumentException e) {
+			assertEquals("User is not logged in.", e.getMessage());
+		}
+		try {
+			manager.addUserToCourse(null, manager.getCourseByName("CSC116"));
+			fail("IllegalArgumentException should be thrown without a session");
+		} catch (IllegalArgumentException e) {
+			assertEquals("User is not logged in.", e.getMessage());
+		}
+
+		manager.clearData();
+		assertFalse(lberg.isActive());
+		assertNull(manager.getCurrentUser());
+	}
+
+	/**
+	 * Tests that many sessions adding the same course at once never
+	 * overfill it.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test
+	public void testConcurrentSessions() throws InterruptedException {
+		manager.loadCourses("test-files/course_records.txt");
+		manager.loadStudents("test-files/student_records.txt");
+		final Course course = new Course("CSC492", 1, 3);
+		manager.addCourse(course);
+
+		final String [] ids = {"zking", "cschwartz", "shansen", "daustin", "rbrennan",
+				"efrost", "lberg", "gstone", "ahicks", "dnolan"};
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger added = new AtomicInteger();
+		Thread [] threads = new Thread[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			final Session session = manager.loginSession(ids[i], "pw");
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					if (manager.addUserToCourse(session, course)) {
+						added.incrementAndGet();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(3, added.get());
+		assertEquals(3, course.getEnrolledStudents().length);
+	}
+
+	/**
+	 * Tests that sessions adding and dropping many courses at once never
+	 * exceed a course's capacity or a student's credits, and that rosters
+	 * and course lists stay in step.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test
+	public void testConcurrentEnrollment() throws InterruptedException {
+		final Course [] catalog = new Course[8];
+		for (int i = 0; i < catalog.length; i++) {
+			catalog[i] = new Course("CSC5" + i, i % 4 + 1, 5);
+			manager.addCourse(catalog[i]);
+		}
+		final Session [] sessions = new Session[12];
+		for (int i = 0; i < sessions.length; i++) {
+			Student s = new Student("First", "Last", "student" + i, "s@ncsu.edu", "pw", 10);
+			sessions[i] = new Session(s);
+		}
+		Thread [] threads = new Thread[sessions.length];
+		for (int i = 0; i < threads.length; i++) {
+			final Session session = sessions[i];
+			final Random random = new Random(i);
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 2000; j++) {
+						Course c = catalog[random.nextInt(catalog.length)];
+						if (random.nextBoolean()) {
+							manager.addUserToCourse(session, c);
+						} else {
+							manager.removeUserFromCourse(session, c);
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		int seats = 0;
+		for (Course c : catalog) {
+			assertTrue(c.getEnrolledStudents().length <= c.getCapacity());
+			seats += c.getEnrolledStudents().length;
+		}
+		int listed = 0;
+		for (Session session : sessions) {
+			Student s = (Student) session.getUser();
+			assertTrue(s.getCurrentCredits() <= s.getMaxCredits());
+			for (Course c : s.getCourses()) {
+				assertTrue(Arrays.asList(c.getEnrolledStudents()).contains(s));
+				listed++;
+			}
+		}
+		assertEquals(seats, listed);
+	}
+
+	/**
+	 * Tests that getCatalog() returns the same read-only list until the
+	 * courses change.
+	 */
+	@Test
+	public void testGetCatalog() {
+		List<Course> empty = manager.getCatalog();
+		assertTrue(empty.isEmpty());
+
+		manager.loadCourses("test-files/course_records.txt");
+		List<Course> loaded = manager.getCatalog();
+		assertNotSame(empty, loaded);
+		assertSame(loaded, manager.getCatalog());
+		assertEquals(Arrays.asList(manager.listAllCourses()), loaded);
+		try {
+			loaded.add(new Course("CSC492", 3, 10));
+			fail("The catalog should be read-only");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(8, manager.getCatalog().size());
+		}
+
+		//Changing the array from listAllCourses() doesn't change the catalog
+		Course [] all = manager.listAllCourses();
+		all[0] = null;
+		assertNotNull(manager.listAllCourses()[0]);
+
+		//A duplicate isn't added, so the catalog isn't replaced
+		manager.addCourse(new Course("csc116", 3, 10));
+		assertSame(loaded, manager.getCatalog());
+
+		manager.addCourse(new Course("CSC492", 3, 10));
+		assertNotSame(loaded, manager.getCatalog());
+		assertEquals(8, loaded.size());
+		assertEquals(9, manager.getCatalog().size());
+
+		manager.clearData();
+		assertTrue(manager.getCatalog().isEmpty());
+	}
+
+	/**
+	 * Tests that saveCoursesAsync() and saveStudentsAsync() write the same
+	 * files as the synchronous saves.
+	 * @throws Exception if a file can't be copied or a save fails
+	 */
+	@Test
+	public void testSaveAsync() throws Exception {
+		Path courseFile = Files.createTempFile("course_records", ".txt");
+		Path studentFile = Files.createTempFile("student_records", ".txt");
+		try {
+			Files.copy(FileSystems.getDefault().getPath("test-files", "course_records.txt"), courseFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			Files.copy(FileSystems.getDefault().getPath("test-files", "student_records.txt"), studentFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+
+			manager.addCourse(new Course("CSC492", 3, 10));
+			Session session = manager.loginSession("lberg", "pw");
+			assertTrue(manager.addUserToCourse(session, manager.getCourseByName("CSC492")));
+
+			manager.saveCoursesAsync().get(10, TimeUnit.SECONDS);
+			manager.saveStudentsAsync().get(10, TimeUnit.SECONDS);
+			byte [] courses = Files.readAllBytes(courseFile);
+			byte [] students = Files.readAllBytes(studentFile);
+			assertTrue(new String(courses).contains("CSC492,3,10"));
+
+			manager.saveCourses();
+			manager.saveStudents();
+			assertArrayEquals(Files.readAllBytes(courseFile), courses);
+			assertArrayEquals(Files.readAllBytes(studentFile), students);
+		} finally {
+			Files.deleteIfExists(courseFile);
+			Files.deleteIfExists(studentFile);
+		}
+	}
+
+	/**
+	 * Tests that changes logged by openLog() survive a restart from the
+	 * last checkpoint, and that checkpoint() rewrites the student file and
+	 * empties the log.
+	 * @throws Exception if a file can't be copied
+	 */
+	@Test
+	public void testEnrollmentLog() throws Exception {
+		Path courseFile = Files.createTempFile("course_records", ".txt");
+		Path studentFile = Files.createTempFile("student_records", ".txt");
+		Path logFile = Files.createTempFile("enrollment", ".log");
+		try {
+			Files.copy(FileSystems.getDefault().getPath("test-files", "course_records.txt"), courseFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			Files.copy(FileSystems.getDefault().getPath("test-files", "student_records.txt"), studentFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			byte [] checkpoint = Files.readAllBytes(studentFile);
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			manager.openLog(logFile.toString());
+
+			Session session = manager.loginSession("gstone", "pw");
+			assertTrue(manager.addUserToCourse(session, manager.getCourseByName("CSC316")));
+			assertTrue(manager.removeUserFromCourse(session, manager.getCourseByName("CSC216")));
+			assertFalse(manager.removeUserFromCourse(session, manager.getCourseByName("CSC216")));
+			String expected = session.getUser().toString();
+			Course [] expectedCourses = session.getUser().getCourses();
+			assertEquals(2, Files.readAllLines(logFile).size());
+			assertArrayEquals(checkpoint, Files.readAllBytes(studentFile));
+
+			//Restart from the unchanged student file and replay the log
+			manager.clearData();
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			manager.openLog(logFile.toString());
+			assertTrue(manager.login("gstone", "pw"));
+			assertEquals(expected, manager.getCurrentUser().toString());
+			assertEquals(1, manager.getCourseByName("CSC316").getEnrolledStudents().length);
+
+			manager.checkpoint();
+			assertEquals(0, Files.size(logFile));
+			assertFalse(Arrays.equals(checkpoint, Files.readAllBytes(studentFile)));
+
+			//Replaying a log already in the checkpoint changes nothing
+			Files.write(logFile, "A,gstone,CSC316\nD,gstone,CSC216\n".getBytes());
+			manager.clearData();
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			manager.openLog(logFile.toString());
+			//Passwords don't survive a save in every locale, so check the rosters
+			Student [] enrolled = manager.getCourseByName("CSC316").getEnrolledStudents();
+			assertEquals(1, enrolled.length);
+			assertEquals("gstone", enrolled[0].getId());
+			assertArrayEquals(expectedCourses, enrolled[0].getCourses());
+			assertEquals(1, manager.getCourseByName("CSC316").getSeatsTaken());
+		} finally {
+			manager.clearData();
+			Files.deleteIfExists(courseFile);
+			Files.deleteIfExists(studentFile);
+			Files.deleteIfExists(logFile);
+		}
+	}
+
+	/**
+	 * Tests that adds and drops that can't be logged are undone and reported
+	 * as failures.
+	 * @throws Exception if a file can't be copied
+	 */
+	@Test
+	public void testLogFailure() throws Exception {
+		Path logFile = Files.createTempFile("enrollment", ".log");
+		final EnrollmentLog [] opened = new EnrollmentLog[1];
+		try {
+			manager.setRecordStore(new TextRecordStore() {
+				@Override
+				public EnrollmentLog openLog(String fileName) throws IOException {
+					opened[0] = super.openLog(fileName);
+					return opened[0];
+				}
+			});
+			manager.loadCourses("test-files/course_records.txt");
+			manager.loadStudents("test-files/student_records.txt");
+			manager.openLog(logFile.toString());
+			Session session = manager.loginSession("lberg", "pw");
+			Course added = manager.getCourseByName("CSC116");
+			Course other = manager.getCourseByName("CSC216");
+			assertTrue(manager.addUserToCourse(session, added));
+			int seats = other.getSeatsTaken();
+
+			//Writes to a closed log fail, like a disk that can't be forced
+			opened[0].close();
+			try {
+				manager.addUserToCourse(session, other);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().startsWith("Enrollment could not be logged"));
+			}
+			try {
+				manager.removeUserFromCourse(session, added);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().startsWith("Enrollment could not be logged"));
+			}
+			assertArrayEquals(new Course [] {added}, session.getUser().getCourses());
+			assertEquals(seats, other.getSeatsTaken());
+			for (Student s : other.getEnrolledStudents()) {
+				assertFalse(s.getId().equals("lberg"));
+			}
+			assertEquals("lberg", added.getEnrolledStudents()[added.getEnrolledStudents().length - 1].getId());
+			assertEquals(Arrays.asList("A,lberg,CSC116"), Files.readAllLines(logFile));
+		} finally {
+			manager.clearData();
+			manager.setRecordStore(new TextRecordStore());
+			Files.deleteIfExists(logFile);
+		}
+	}
+
+	/**
+	 * Tests that checkpoints taken while two students trade the only seat in
+	 * a course keep both students and the seat's holder after a restart.
+	 * @throws Exception if a file can't be copied or the thread is interrupted
+	 */
+	@Test
+	public void testCheckpointWhileEnrolling() throws Exception {
+		Path courseFile = Files.createTempFile("course_records", ".txt");
+		Path studentFile = Files.createTempFile("student_records", ".txt");
+		Path logFile = Files.createTempFile("enrollment", ".log");
+		try {
+			Files.copy(FileSystems.getDefault().getPath("test-files", "course_records.txt"), courseFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			Files.copy(FileSystems.getDefault().getPath("test-files", "student_records.txt"), studentFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			manager.loadCourses(courseFile.toString());
+			manager.addCourse(new Course("CSC591", 1, 1));
+			manager.saveCourses();
+			manager.loadStudents(studentFile.toString());
+			manager.openLog(logFile.toString());
+
+			final Course course = manager.getCourseByName("CSC591");
+			final Session first = manager.loginSession("lberg", "pw");
+			final Session second = manager.loginSession("cschwartz", "pw");
+			assertTrue(manager.addUserToCourse(first, course));
+			final CountDownLatch done = new CountDownLatch(1);
+			Thread trader = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Session from = first;
+					Session to = second;
+					while (done.getCount() > 0) {
+						manager.removeUserFromCourse(from, course);
+						manager.addUserToCourse(to, course);
+						Session swap = from;
+						from = to;
+						to = swap;
+					}
+				}
+			});
+			trader.start();
+			for (int i = 0; i < 20; i++) {
+				manager.checkpoint();
+			}
+			done.countDown();
+			trader.join();
+			Student [] expected = course.getEnrolledStudents();
+			assertEquals(1, expected.length);
+
+			manager.clearData();
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			manager.openLog(logFile.toString());
+			assertNotNull(manager.loginSession("lberg", "pw"));
+			assertNotNull(manager.loginSession("cschwartz", "pw"));
+			Student [] enrolled = manager.getCourseByName("CSC591").getEnrolledStudents();
+			assertEquals(1, enrolled.length);
+			assertEquals(expected[0].getId(), enrolled[0].getId());
+		} finally {
+			manager.clearData();
+			Files.deleteIfExists(courseFile);
+			Files.deleteIfExists(studentFile);
+			Files.deleteIfExists(logFile);
+		}
+	}
+
+	/**
+	 * Tests that the manager loads and saves through the record store it is
+	 * given, and that saving after changing the store converts the files.
+	 * @throws Exception if a file can't be copied
+	 */
+	@Test
+	public void testRecordStore() throws Exception {
+		Path courseFile = Files.createTempFile("course_records", ".bin");
+		Path studentFile = Files.createTempFile("student_records", ".bin");
+		try {
+			Files.copy(FileSystems.getDefault().getPath("test-files", "course_records.txt"), courseFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			Files.copy(FileSystems.getDefault().getPath("test-files", "student_records.txt"), studentFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			assertTrue(manager.getRecordStore() instanceof TextRecordStore);
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			Course [] courses = manager.listAllCourses();
+			Student [] enrolled = manager.getCourseByName("CSC216").getEnrolledStudents();
+
+			manager.setRecordStore(new BinaryRecordStore());
+			manager.saveCourses();
+			manager.saveStudents();
+			//The files are binary now
+			assertEquals(courses.length, BinaryCourseRecordIO.readCourseRecords(courseFile.toString()).size());
+			assertFalse(new String(Files.readAllBytes(courseFile)).contains(courses[0].toString()));
+
+			manager.clearData();
+			assertTrue(manager.getRecordStore() instanceof BinaryRecordStore);
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			assertEquals(courses.length, manager.listAllCourses().length);
+			for (int i = 0; i < courses.length; i++) {
+				assertEquals(courses[i].toString(), manager.listAllCourses()[i].toString());
+			}
+			Student [] reloaded = manager.getCourseByName("CSC216").getEnrolledStudents();
+			assertEquals(enrolled.length, reloaded.length);
+			for (int i = 0; i < enrolled.length; i++) {
+				assertEquals(enrolled[i].getId(), reloaded[i].getId());
+			}
+			try {
+				manager.setRecordStore(null);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertTrue(manager.getRecordStore() instanceof BinaryRecordStore);
+			}
+		} finally {
+			manager.setRecordStore(new TextRecordStore());
+			manager.clearData();
+			Files.deleteIfExists(courseFile);
+			Files.deleteIfExists(studentFile);
+		}
+	}
+
+	/**
+	 * Tests that students can still log in after their records are saved and
+	 * loaded again, although saving replaces the bytes of a hashed password
+	 * that the default charset can't hold.
+	 * @throws Exception if the files can't be copied
+	 */
+	@Test
+	public void testLoginAfterSave() throws Exception {
+		Path courseFile = Files.createTempFile("course_records", ".txt");
+		Path studentFile = Files.createTempFile("student_records", ".txt");
+		try {
+			Files.copy(FileSystems.getDefault().getPath("test-files", "course_records.txt"), courseFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			Files.copy(FileSystems.getDefault().getPath("test-files", "student_records.txt"), studentFile,
+					StandardCopyOption.REPLACE_EXISTING);
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			assertTrue(manager.login("zking", "pw"));
+			manager.logout();
+			manager.saveCourses();
+			manager.saveStudents();
+
+			manager.clearData();
+			manager.loadCourses(courseFile.toString());
+			manager.loadStudents(studentFile.toString());
+			assertFalse(manager.login("zking", "pw1"));
+			assertTrue(manager.login("zking", "pw"));
+			manager.logout();
+			assertNotNull(manager.loginSession("lberg", "pw"));
+		} finally {
+			manager.clearData();
+			Files.deleteIfExists(courseFile);
+			Files.deleteIfExists(studentFile);
+		}
+	}
+	
+	/**
+	 * Tests that loadStudentsLazily() holds every seat from the start but
+	 * only creates students when they log in or a roster is read, and that
+	 * the result matches loadStudents().
+	 */
+	@Test
+	public void testLoadStudentsLazily() {
+		manager.loadCourses("test-files/course_records.txt");
+		manager.loadStudents("test-files/student_records.txt");
+		Course [] eager = manager.listAllCourses();
+		int [] seats = new int[eager.length];
+		List<List<String>> rosters = new ArrayList<List<String>>();
+		for (int i = 0; i < eager.length; i++) {
+			seats[i] = eager[i].getSeatsTaken();
+			rosters.add(ids(eager[i].getEnrolledStudents()));
+		}
+
+		manager.clearData();
+		manager.loadCourses("test-files/course_records.txt");
+		manager.loadStudentsLazily("test-files/student_records.txt");
+		Course [] lazy = manager.listAllCourses();
+		for (int i = 0; i < lazy.length; i++) {
+			assertEquals(seats[i], lazy[i].getSeatsTaken());
+		}
+		//Full courses turn new students away before anyone is created
+		Course csc246 = manager.getCourseByName("CSC246");
+		assertFalse(csc246.reserveSeat());
+
+		assertTrue(manager.login("zking", "pw"));
+		Student zking = (Student) manager.getCurrentUser();
+		assertEquals(validStudents[0], zking.toString());
+		assertSame(zking, manager.getCourseByName("CSC216").getEnrolledStudents()[0]);
+		manager.logout();
+		assertFalse(manager.login("nobody", "pw"));
+		assertFalse(manager.login("cschwartz", "wrong"));
+
+		//Reading a roster creates the students on it
+		for (int i = 0; i < lazy.length; i++) {
+			List<String> roster = ids(lazy[i].getEnrolledStudents());
+			Collections.sort(roster);
+			List<String> expected = rosters.get(i);
+			Collections.sort(expected);
+			assertEquals(expected, roster);
+			assertEquals(seats[i], lazy[i].getSeatsTaken());
+		}
+		assertTrue(manager.login("lberg", "pw"));
+		assertEquals(validStudents[6], manager.getCurrentUser().toString());
+
+		try {
+			manager.setRecordStore(new BinaryRecordStore());
+			manager.loadStudentsLazily("test-files/student_records.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("text"));
+		} finally {
+			manager.setRecordStore(new TextRecordStore());
+		}
+	}
+
+	/**
+	 * Returns the ids of the given students.
+	 * @param students students to list
+	 * @return ids in the same order
+	 */
+	private static List<String> ids(Student [] students) {
+		List<String> ids = new ArrayList<String>();
+		for (Student s : students) {
+			ids.add(s.getId());
+		}
+		return ids;
+	}
 }
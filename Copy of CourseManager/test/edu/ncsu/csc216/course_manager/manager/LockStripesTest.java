@@ -0,0 +1,88 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the LockStripes class.
+ * @author Andrew Northrup
+ */
+public class LockStripesTest {
+
+	/**
+	 * Tests that keys always map to the same stripe within range.
+	 */
+	@Test
+	public void testStripe() {
+		LockStripes stripes = new LockStripes(5);
+		for (int i = 0; i < 1000; i++) {
+			int stripe = stripes.stripe("CSC" + i);
+			assertTrue(stripe >= 0 && stripe < 8);
+			assertEquals(stripe, stripes.stripe("CSC" + i));
+		}
+		try {
+			new LockStripes(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Tests locking two keys on the same stripe.
+	 */
+	@Test
+	public void testSameStripe() {
+		LockStripes stripes = new LockStripes(1);
+		stripes.lock("CSC216", "zking");
+		stripes.unlock("CSC216", "zking");
+		stripes.lockAll();
+		stripes.unlockAll();
+	}
+
+	/**
+	 * Tests that threads locking the same keys in opposite order don't
+	 * deadlock.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test
+	public void testOppositeOrder() throws InterruptedException {
+		final LockStripes stripes = new LockStripes(LockStripes.DEFAULT_STRIPES);
+		String a = "CSC216";
+		String b = "zking";
+		assertNotEquals(stripes.stripe(a), stripes.stripe(b));
+		Thread first = locker(stripes, a, b);
+		Thread second = locker(stripes, b, a);
+		first.start();
+		second.start();
+		first.join(10000);
+		second.join(10000);
+		assertFalse(first.isAlive());
+		assertFalse(second.isAlive());
+	}
+
+	/**
+	 * Creates a thread that locks and unlocks the two keys many times.
+	 * @param stripes stripes to lock
+	 * @param first first key
+	 * @param second second key
+	 * @return unstarted thread
+	 */
+	private static Thread locker(final LockStripes stripes, final String first, final String second) {
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 100000; i++) {
+					stripes.lock(first, second);
+					stripes.unlock(first, second);
+				}
+			}
+		});
+		t.setDaemon(true);
+		return t;
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.manager;
+
+import static org.junit.Assert.*;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.users.Student;
+
+/**
+ * Tests the PasswordHasher class.
+ * @author Andrew Northrup
+ */
+public class PasswordHasherTest {
+	/**
+	 * Returns a student whose hashed password is the given password's
+	 * digest decoded in the default charset.
+	 * @param password plain text password
+	 * @return new student
+	 * @throws NoSuchAlgorithmException if SHA-256 isn't available
+	 */
+	private static Student student(String password) throws NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		digest.update(password.getBytes());
+		return new Student("first", "last", "flast", "first_last@ncsu.edu", new String(digest.digest()));
+	}
+
+	/**
+	 * Tests that the right password matches and others don't.
+	 * @throws NoSuchAlgorithmException if SHA-256 isn't available
+	 */
+	@Test
+	public void testMatches() throws NoSuchAlgorithmException {
+		String[] passwords = {"pw", "", "a much longer password than the input buffer starts with, "
+				+ "so that the buffer has to grow to hold it", "p\u00e4ssw\u00f6rd"};
+		for (String password : passwords) {
+			Student s = student(password);
+			assertTrue(password, PasswordHasher.matches(s, password));
+			assertFalse(password, PasswordHasher.matches(s, password + "x"));
+		}
+		assertFalse(PasswordHasher.matches(student("pw"), "pW"));
+	}
+
+	/**
+	 * Tests that a hash that was written out and read back in the default
+	 * charset still matches.
+	 * @throws NoSuchAlgorithmException if SHA-256 isn't available
+	 */
+	@Test
+	public void testMatchesSavedHash() throws NoSuchAlgorithmException {
+		Student s = student("pw");
+		String saved = new String(s.getPassword().getBytes());
+		s.setPassword(saved);
+		assertTrue(PasswordHasher.matches(s, "pw"));
+		assertFalse(PasswordHasher.matches(s, "pw1"));
+	}
+
+	/**
+	 * Tests that every thread can check passwords at the same time.
+	 * @throws Exception if SHA-256 isn't available or a thread is interrupted
+	 */
+	@Test
+	public void testThreads() throws Exception {
+		final Student s = student("pw");
+		final boolean[] results = new boolean[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int t = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					boolean ok = true;
+					for (int j = 0; j < 1000; j++) {
+						ok &= PasswordHasher.matches(s, "pw") && !PasswordHasher.matches(s, "pw" + j);
+					}
+					results[t] = ok;
+				}
+			});
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+			assertTrue(results[i]);
+		}
+	}
+
+	/**
+	 * Tests that checks on many short-lived threads, as a server makes for
+	 * each request, all give the right answer.
+	 * @throws Exception if SHA-256 isn't available or a thread is interrupted
+	 */
+	@Test
+	public void testShortLivedThreads() throws Exception {
+		final Student s = student("pw");
+		final boolean[] results = new boolean[64];
+		for (int i = 0; i < results.length; i++) {
+			final int t = i;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					results[t] = PasswordHasher.matches(s, "pw") && !PasswordHasher.matches(s, "pw" + t);
+				}
+			});
+			thread.start();
+			thread.join();
+			assertTrue(results[i]);
+		}
+	}
+}
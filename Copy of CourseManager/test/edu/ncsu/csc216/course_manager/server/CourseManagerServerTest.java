@@ -0,0 +1,213 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.server;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.course_manager.manager.CourseManager;
+
+/**
+ * Tests the CourseManagerServer class against a server on a free local port.
+ * @author Andrew Northrup
+ */
+public class CourseManagerServerTest {
+	/** Server under test */
+	private CourseManagerServer server;
+	/** Manager behind the server */
+	private CourseManager manager;
+
+	/**
+	 * Loads the test files and starts the server.
+	 * @throws IOException if the server can't be started
+	 */
+	@Before
+	public void setUp() throws IOException {
+		manager = CourseManager.getInstance();
+		manager.clearData();
+		manager.loadCourses("test-files/course_records.txt");
+		manager.loadStudents("test-files/student_records.txt");
+		server = new CourseManagerServer(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.start();
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop(0);
+		manager.clearData();
+	}
+
+	/**
+	 * Tests logging in, listing, adding, dropping and logging out.
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testRegistration() throws IOException {
+		assertEquals("401 Invalid id or password", request("POST", "/login", "id=zking&password=pw1", null));
+		String login = request("POST", "/login", "id=zking&password=pw", null);
+		assertTrue(login.startsWith("200 "));
+		String token = login.substring(4);
+
+		String all = request("GET", "/courses", null, null);
+		assertTrue(all.startsWith("200 CSC116,3,7\n"));
+		assertEquals(manager.listAllCourses().length, all.split("\n").length);
+
+		assertEquals("200 CSC216,3,10\nCSC226,3,10\n", request("GET", "/courses/mine", null, token));
+		assertEquals("200 true", request("POST", "/add", "course=csc316", token));
+		assertEquals("200 false", request("POST", "/add", "course=CSC316", token));
+		assertEquals("200 CSC216,3,10\nCSC226,3,10\nCSC316,3,1\n", request("GET", "/courses/mine", null, token));
+		assertEquals("200 true", request("POST", "/drop", "course=CSC216", token));
+		assertEquals("404 No such course", request("POST", "/drop", "course=CSC999", token));
+
+		assertEquals("200 ", request("POST", "/logout", null, token));
+		assertEquals("401 User is not logged in.", request("GET", "/courses/mine", null, token));
+		assertEquals("401 User is not logged in.", request("POST", "/add", "course=CSC216", null));
+	}
+
+	/**
+	 * Tests requests with the wrong method or path, or a malformed form.
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testBadRequests() throws IOException {
+		assertEquals("405 Method not allowed", request("GET", "/login", null, null));
+		assertEquals("405 Method not allowed", request("POST", "/courses", "", null));
+		assertEquals("404 Not found", request("GET", "/courses/other", null, null));
+		assertEquals("400 Malformed form", request("POST", "/login", "id=zking&password=%zz", null));
+		assertEquals("400 Missing password", request("POST", "/login", "id=zking", null));
+
+		String token = request("POST", "/login", "id=zking&password=pw", null).substring(4);
+		assertEquals("400 Missing course", request("POST", "/add", "", token));
+		assertEquals("400 Malformed form", request("POST", "/drop", "course=CSC%2", token));
+		assertEquals("200 CSC216,3,10\nCSC226,3,10\n", request("GET", "/courses/mine", null, token));
+	}
+
+	/**
+	 * Tests that a session left unused for the idle timeout is logged out,
+	 * and that logging in again opens a new one.
+	 * @throws Exception if a request fails or the test is interrupted
+	 */
+	@Test
+	public void testIdleSessions() throws Exception {
+		server.stop(0);
+		server = new CourseManagerServer(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 200);
+		server.start();
+
+		String token = request("POST", "/login", "id=zking&password=pw", null).substring(4);
+		assertEquals(1, server.openSessions());
+		for (int i = 0; i < 100 && server.openSessions() > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(0, server.openSessions());
+		assertEquals("401 User is not logged in.", request("GET", "/courses/mine", null, token));
+
+		String other = request("POST", "/login", "id=zking&password=pw", null).substring(4);
+		Thread.sleep(300);
+		assertEquals("401 User is not logged in.", request("POST", "/add", "course=CSC316", other));
+		assertEquals(0, server.openSessions());
+		assertEquals("200 true", request("POST", "/add", "course=CSC316",
+				request("POST", "/login", "id=zking&password=pw", null).substring(4)));
+	}
+
+	/**
+	 * Tests parsing URL encoded forms.
+	 * @throws IOException never
+	 */
+	@Test
+	public void testParseForm() throws IOException {
+		Map<String, String> form = CourseManagerServer.parseForm("id=a%2Cb&password=p+w&flag");
+		assertEquals("a,b", form.get("id"));
+		assertEquals("p w", form.get("password"));
+		assertEquals("", form.get("flag"));
+		assertTrue(CourseManagerServer.parseForm("").isEmpty());
+	}
+
+	/**
+	 * Tests that the request executor runs tasks, and that without virtual
+	 * threads it doesn't start more than POOL_THREADS threads.
+	 * @throws Exception if the task fails
+	 */
+	@Test
+	public void testRequestExecutor() throws Exception {
+		ExecutorService executor = CourseManagerServer.newRequestExecutor();
+		try {
+			if (executor instanceof ThreadPoolExecutor) {
+				assertEquals(CourseManagerServer.POOL_THREADS, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+			}
+			assertEquals("ran", executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return "ran";
+				}
+			}).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Sends a request to the server.
+	 * @param method HTTP method
+	 * @param path request path
+	 * @param form URL encoded body, or null for none
+	 * @param token session token, or null for none
+	 * @return status code, a space and the response body
+	 * @throws IOException if the request fails
+	 */
+	private String request(String method, String path, String form, String token) throws IOException {
+		URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		try {
+			connection.setRequestMethod(method);
+			if (token != null) {
+				connection.setRequestProperty("Authorization", "Bearer " + token);
+			}
+			if (form != null) {
+				connection.setDoOutput(true);
+				OutputStream out = connection.getOutputStream();
+				try {
+					out.write(form.getBytes("UTF-8"));
+				} finally {
+					out.close();
+				}
+			}
+			int status = connection.getResponseCode();
+			InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			if (in != null) {
+				try {
+					byte[] buffer = new byte[1024];
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						body.write(buffer, 0, read);
+					}
+				} finally {
+					in.close();
+				}
+			}
+			return status + " " + body.toString("UTF-8");
+		} finally {
+			connection.disconnect();
+		}
+	}
+}
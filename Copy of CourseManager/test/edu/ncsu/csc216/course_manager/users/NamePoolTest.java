@@ -0,0 +1,32 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.course_manager.users;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the NamePool class.
+ * @author Andrew Northrup
+ */
+public class NamePoolTest {
+	/**
+	 * Tests that equal strings are shared and a different string takes
+	 * over its slot.
+	 */
+	@Test
+	public void testShare() {
+		String first = NamePool.share(new String("Zahir"));
+		String second = NamePool.share(new String("Zahir"));
+		assertEquals("Zahir", second);
+		assertSame(first, second);
+
+		//"Aa" and "BB" have the same hash, so they use the same slot
+		String aa = NamePool.share(new String("Aa"));
+		String bb = NamePool.share(new String("BB"));
+		assertEquals("BB", bb);
+		assertNotSame(aa, NamePool.share(new String("Aa")));
+	}
+}
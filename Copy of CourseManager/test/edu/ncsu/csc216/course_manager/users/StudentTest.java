@@ -254,6 +254,29 @@ public class StudentTest {
 		}
 	}
 	
+	/**
+	 * Tests that a copy keeps the courses the student had when it was made.
+	 */
+	@Test
+	public void testCopy() {
+		s.addCourse(c1);
+		s.addCourse(c2);
+		Student copy = new Student(s);
+		assertEquals(s, copy);
+		assertEquals(s.toString(), copy.toString());
+		assertEquals(6, copy.getCurrentCredits());
+		
+		s.removeCourse(c1);
+		s.addCourse(c3);
+		compareCourses(new Course [] {c1, c2}, copy.getCourses());
+		compareCourses(new Course [] {c2, c3}, s.getCourses());
+		assertNotEquals(s, copy);
+		
+		//The copy can change without changing the student
+		assertTrue(copy.removeCourse(c2));
+		compareCourses(new Course [] {c2, c3}, s.getCourses());
+	}
+	
 	/**
 	 * Tests equals() and hashCode() methods.
 	 */
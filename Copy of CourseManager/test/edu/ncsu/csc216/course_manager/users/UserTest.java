@@ -349,4 +349,45 @@ public class UserTest {
 			//Check that the user was NOT created
 		} 
 	}
+
+	/**
+	 * Tests comparing the hashed password with encoded hashes.
+	 */
+	@Test
+	public void testHasPasswordHash() {
+		User u = new Student(firstName, lastName, id, email, hashPW);
+		byte[] encoded = hashPW.getBytes();
+		assertTrue(u.hasPasswordHash(encoded, encoded.length));
+		byte[] longer = new byte[encoded.length + 1];
+		System.arraycopy(encoded, 0, longer, 0, encoded.length);
+		assertTrue(u.hasPasswordHash(longer, encoded.length));
+		assertFalse(u.hasPasswordHash(longer, longer.length));
+		assertFalse(u.hasPasswordHash(encoded, encoded.length - 1));
+		encoded[encoded.length - 1]++;
+		assertFalse(u.hasPasswordHash(encoded, encoded.length));
+	}
+
+	/**
+	 * Tests that emails split around the id read back whole and that equal
+	 * names and domains are shared between users.
+	 */
+	@Test
+	public void testCompactFields() {
+		User u = new Student(new String(firstName), lastName, id, id + "@ncsu.edu", hashPW);
+		User v = new Student(new String(firstName), lastName, "vlast", "first@last@ncsu.edu", hashPW);
+		assertEquals(id + "@ncsu.edu", u.getEmail());
+		assertEquals("first@last@ncsu.edu", v.getEmail());
+		assertEquals(id, u.getEmailLocal());
+		assertEquals("first", v.getEmailLocal());
+		assertEquals("last@ncsu.edu", v.getEmailDomain());
+		assertSame(u.getFirstName(), v.getFirstName());
+
+		u.setEmail("vlast@ncsu.edu");
+		v.setEmail("vlast@ncsu.edu");
+		assertEquals("vlast@ncsu.edu", u.getEmail());
+		assertEquals("vlast@ncsu.edu", v.getEmail());
+		assertFalse(u.equals(v));
+		assertEquals(u, new Student(firstName, lastName, id, "vlast@ncsu.edu", hashPW));
+		assertEquals(u.hashCode(), new Student(firstName, lastName, id, "vlast@ncsu.edu", hashPW).hashCode());
+	}
 }